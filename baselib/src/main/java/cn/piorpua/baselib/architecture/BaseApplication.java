@@ -1,6 +1,19 @@
 package cn.piorpua.baselib.architecture;
 
+import android.app.Activity;
 import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import cn.piorpua.baselib.architecture.startup.StartupDispatcher;
+import cn.piorpua.baselib.architecture.startup.StartupTask;
+import cn.piorpua.baselib.architecture.startup.StartupTracer;
+import cn.piorpua.baselib.component.MemoryPressureDispatcher;
 
 /**
  * Author: piorpua<br>
@@ -8,18 +21,192 @@ import android.app.Application;
  * Date Created: 17/2/23
  *
  * <p>Brief: 基础 {@link Application}</p>
+ *
+ * 1. 提供全局实例;<br>
+ * 2. 提供启动任务调度({@link StartupDispatcher}), 子类通过
+ *    {@link BaseApplication#onRegisterStartupTasks(StartupDispatcher)} 注册启动任务;<br>
+ * 3. 提供延迟构造的组件注册表({@link ComponentRegistry}), 子类通过
+ *    {@link BaseApplication#onRegisterComponents(ComponentRegistry)} 注册组件,
+ *    标记为预热的组件在首帧绘制后由后台线程构造;<br>
+ * 4. 提供启动追踪({@link StartupTracer}), 记录进程启动, onCreate, 各启动任务, 首个 Activity 创建及首帧绘制;<br>
+ * 5. 将内存回收通知转发给 {@link MemoryPressureDispatcher}, 各缓存统一订阅;<br>
  */
 public class BaseApplication extends Application {
 
+    /*** Activity 生命周期监听 */
+    private final class LifecycleMonitor implements ActivityLifecycleCallbacks {
+
+        private boolean mFirstActivityCreated;
+        private boolean mFirstFrameObserved;
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            if (mFirstActivityCreated) {
+                return;
+            }
+            mFirstActivityCreated = true;
+
+            StartupTracer tracer = StartupTracer.getInstance();
+            tracer.mark(StartupTracer.EVENT_FIRST_ACTIVITY_CREATED);
+
+            StartupTracer.Event event = tracer.beginSection(StartupTracer.EVENT_STARTUP_BARRIER);
+            mStartupDispatcher.awaitBarrier();
+            tracer.endSection(event);
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            // DO NOTHING
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            if (mFirstFrameObserved || activity.getWindow() == null) {
+                return;
+            }
+            mFirstFrameObserved = true;
+
+            final View decorView = activity.getWindow().getDecorView();
+            decorView.getViewTreeObserver().addOnPreDrawListener(
+                    new ViewTreeObserver.OnPreDrawListener() {
+
+                @Override
+                public boolean onPreDraw() {
+                    ViewTreeObserver observer = decorView.getViewTreeObserver();
+                    if (observer.isAlive()) {
+                        observer.removeOnPreDrawListener(this);
+                    }
+
+                    // 首帧绘制之后执行
+                    new Handler(Looper.getMainLooper()).post(new Runnable() {
+                        @Override
+                        public void run() {
+                            dispatchFirstFrameDrawn();
+                        }
+                    });
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+            // DO NOTHING
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            // DO NOTHING
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            // DO NOTHING
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            // DO NOTHING
+        }
+    }
+
     private static Application sIns;
 
     public static Application getIns() {
         return sIns;
     }
 
+    private static ComponentRegistry sComponentRegistry;
+
+    /*** 获取组件, 首次获取时构造({@link ComponentRegistry#get(Class)}) */
+    public static @NonNull <T> T getComponent(@NonNull Class<T> type) {
+        if (sComponentRegistry == null) {
+            throw new IllegalStateException("BaseApplication not created.");
+        }
+        return sComponentRegistry.get(type);
+    }
+
+    /*** 启动任务调度器 */
+    private final @NonNull StartupDispatcher mStartupDispatcher = new StartupDispatcher();
+
+    /*** 组件注册表 */
+    private ComponentRegistry mComponentRegistry;
+
     @Override
     public void onCreate() {
+        StartupTracer.Event event = StartupTracer.getInstance().beginSection(
+                StartupTracer.EVENT_APPLICATION_CREATE);
+
         super.onCreate();
         sIns = this;
+
+        registerActivityLifecycleCallbacks(new LifecycleMonitor());
+
+        mComponentRegistry = new ComponentRegistry(this);
+        onRegisterComponents(mComponentRegistry);
+        sComponentRegistry = mComponentRegistry;
+
+        onRegisterStartupTasks(mStartupDispatcher);
+        mStartupDispatcher.start(this);
+
+        StartupTracer.getInstance().endSection(event);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        MemoryPressureDispatcher.getInstance().dispatchTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        MemoryPressureDispatcher.getInstance().dispatchLowMemory();
+    }
+
+    /*** 获取启动任务调度器, 可用于查询各任务执行耗时 */
+    public final @NonNull StartupDispatcher getStartupDispatcher() {
+        return mStartupDispatcher;
+    }
+
+    /*** 获取启动追踪器 */
+    public final @NonNull StartupTracer getStartupTracer() {
+        return StartupTracer.getInstance();
+    }
+
+    /*** 获取组件注册表 */
+    public final @NonNull ComponentRegistry getComponentRegistry() {
+        return mComponentRegistry;
+    }
+
+    /**
+     * 注册组件({@link ComponentRegistry#register(Class, ComponentRegistry.Factory, boolean)})<br>
+     * 在 {@link BaseApplication#onCreate()} 中调用, 先于启动任务注册
+     */
+    @MainThread
+    protected void onRegisterComponents(@NonNull ComponentRegistry registry) {
+        // DO NOTHING
+    }
+
+    /**
+     * 注册启动任务({@link StartupDispatcher#addTask(StartupTask)})<br>
+     * 在 {@link BaseApplication#onCreate()} 中调用
+     */
+    @MainThread
+    protected void onRegisterStartupTasks(@NonNull StartupDispatcher dispatcher) {
+        // DO NOTHING
+    }
+
+    /*** 首个 Activity 首帧绘制完成 */
+    @MainThread
+    protected void onFirstFrameDrawn() {
+        // DO NOTHING
+    }
+
+    private void dispatchFirstFrameDrawn() {
+        StartupTracer.getInstance().mark(StartupTracer.EVENT_FIRST_FRAME_DRAWN);
+
+        mComponentRegistry.prewarm();
+        onFirstFrameDrawn();
     }
 }
@@ -0,0 +1,148 @@
+package cn.piorpua.baselib.architecture;
+
+import android.content.Context;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 组件注册表</p>
+ *
+ * 1. 以类型为键, 持有延迟构造的单例组件, 首次 {@link ComponentRegistry#get(Class)} 时才构造;<br>
+ * 2. 构造完成后的查找无锁(仅 {@link ConcurrentHashMap#get(Object)} 与 volatile 读);<br>
+ * 3. 标记为预热的组件, 可在首帧绘制后由后台线程提前构造({@link ComponentRegistry#prewarm()});<br>
+ */
+public final class ComponentRegistry {
+
+    /*** 组件构造器 */
+    public interface Factory<T> {
+
+        /*** 构造组件, 可能在任意线程调用, 但对每个组件只调用一次 */
+        @NonNull T create(@NonNull Context ctx);
+    }
+
+    /*** 组件条目 */
+    private static final class Entry<T> {
+
+        private final @NonNull Factory<? extends T> mFactory;
+
+        private final boolean mPrewarm;
+
+        private volatile @Nullable T mInstance;
+
+        Entry(@NonNull Factory<? extends T> factory, boolean prewarm) {
+            mFactory = factory;
+            mPrewarm = prewarm;
+        }
+
+        @NonNull T get(@NonNull Context ctx) {
+            T instance = mInstance;
+            if (instance != null) {
+                return instance;
+            }
+
+            synchronized (this) {
+                instance = mInstance;
+                if (instance == null) {
+                    instance = mFactory.create(ctx);
+                    mInstance = instance;
+                }
+                return instance;
+            }
+        }
+    }
+
+    private final @NonNull Context mContext;
+
+    private final @NonNull ConcurrentHashMap<Class<?>, Entry<?>> mEntries =
+            new ConcurrentHashMap<Class<?>, Entry<?>>();
+
+    private volatile boolean mPrewarmed;
+
+    public ComponentRegistry(@NonNull Context ctx) {
+        Context appContext = ctx.getApplicationContext();
+        mContext = appContext == null ? ctx : appContext;
+    }
+
+    /*** 注册组件 */
+    public <T> void register(@NonNull Class<T> type, @NonNull Factory<? extends T> factory) {
+        register(type, factory, false);
+    }
+
+    /**
+     * 注册组件
+     * @param prewarm 是否在首帧绘制后由后台线程提前构造
+     */
+    public <T> void register(@NonNull Class<T> type,
+                             @NonNull Factory<? extends T> factory, boolean prewarm) {
+
+        if (mEntries.putIfAbsent(type, new Entry<T>(factory, prewarm)) != null) {
+            throw new IllegalArgumentException("Duplicate component: " + type.getName());
+        }
+    }
+
+    /*** 获取组件, 首次获取时构造 */
+    @SuppressWarnings("unchecked")
+    public @NonNull <T> T get(@NonNull Class<T> type) {
+        Entry<T> entry = (Entry<T>) mEntries.get(type);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unregistered component: " + type.getName());
+        }
+        return entry.get(mContext);
+    }
+
+    /*** 组件是否已注册 */
+    public boolean contains(@NonNull Class<?> type) {
+        return mEntries.containsKey(type);
+    }
+
+    /*** 组件是否已构造 */
+    public boolean isCreated(@NonNull Class<?> type) {
+        Entry<?> entry = mEntries.get(type);
+        return entry != null && entry.mInstance != null;
+    }
+
+    /*** 在后台线程构造所有标记为预热且尚未构造的组件, 仅第一次调用有效 */
+    public void prewarm() {
+        if (mPrewarmed) {
+            return;
+        }
+        mPrewarmed = true;
+
+        final List<Entry<?>> entries = new ArrayList<Entry<?>>();
+        for (Entry<?> entry : mEntries.values()) {
+            if (entry.mPrewarm && entry.mInstance == null) {
+                entries.add(entry);
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                for (Entry<?> entry : entries) {
+                    try {
+                        entry.get(mContext);
+                    } catch (Exception e) {
+                        // 预热失败时, 留待首次获取时重试
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }, "ComponentRegistry-Prewarm");
+        thread.start();
+    }
+}
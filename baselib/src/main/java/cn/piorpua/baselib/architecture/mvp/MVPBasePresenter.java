@@ -11,6 +11,8 @@ import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 
 import cn.piorpua.baselib.component.ReferenceHandler;
+import cn.piorpua.baselib.metrics.MetricsRegistry;
+import cn.piorpua.baselib.metrics.StripedCounter;
 
 /**
  * Author: piorpua<br>
@@ -22,6 +24,7 @@ import cn.piorpua.baselib.component.ReferenceHandler;
  * 1. 提供对 {@link MVPBaseView} 的引用;<br>
  * 2. 提供与 {@link Activity} 部分相匹配与其生命周期相关的空方法;<br>
  * 3. 提供内部主线程;<br>
+ * 4. 提供共享的请求加载({@link MVPBasePresenter#requestShared(String, MVPRequestTable.Loader, MVPRequestTable.Callback)});<br>
  *
  * @param <View> {@link MVPBaseView}
  */
@@ -38,6 +41,10 @@ public abstract class MVPBasePresenter<View extends MVPBaseView> {
         protected void handleMessageSticky(
                 @NonNull MVPBasePresenter presenter, @NonNull Message msg) {
 
+            if (MVPRequestTable.MSG_DELIVERY == msg.what && msg.obj instanceof MVPRequestTable.Delivery) {
+                ((MVPRequestTable.Delivery) msg.obj).deliver();
+                return;
+            }
             presenter.onHandleMessage(msg);
         }
 
@@ -47,6 +54,11 @@ public abstract class MVPBasePresenter<View extends MVPBaseView> {
         }
     }
 
+    private static final StripedCounter sCreateCounter =
+            MetricsRegistry.getInstance().counter("presenter.create");
+    private static final StripedCounter sDestroyCounter =
+            MetricsRegistry.getInstance().counter("presenter.destroy");
+
     /*** View 引用 */
     private @Nullable Reference<View> mViewRef;
 
@@ -59,6 +71,7 @@ public abstract class MVPBasePresenter<View extends MVPBaseView> {
     public MVPBasePresenter(View view) {
         mViewRef = new WeakReference<View>(view);
         mMainHandler = new InnerHandler(this);
+        sCreateCounter.increment();
     }
 
     /*** 获取 View */
@@ -87,8 +100,10 @@ public abstract class MVPBasePresenter<View extends MVPBaseView> {
         }
 
         mMainHandler.detachReference();
+        MVPRequestTable.getInstance().detach(this);
 
         mDestroyed = true;
+        sDestroyCounter.increment();
     }
 
     /*** Call when {@link Activity#onActivityResult(int, int, Intent)} */
@@ -128,4 +143,20 @@ public abstract class MVPBasePresenter<View extends MVPBaseView> {
     }
 
     // <<< Handle Message
+
+    /***
+     * 共享加载: 相同 key 正在加载时不重复加载, 完成后结果分发给所有仍存活的等待方
+     * @param loader 运行在后台线程, 加载结束前被持有(即使 Presenter 已销毁), 宜使用静态内部类
+     * @param callback 运行在主线程, Presenter 销毁后不再回调
+     */
+    @MainThread
+    protected final <T> void requestShared(@NonNull String key,
+                                           @NonNull MVPRequestTable.Loader<T> loader,
+                                           @NonNull MVPRequestTable.Callback<T> callback) {
+
+        if (mDestroyed) {
+            return;
+        }
+        MVPRequestTable.getInstance().request(key, loader, this, mMainHandler, callback);
+    }
 }
@@ -0,0 +1,223 @@
+package cn.piorpua.baselib.architecture.mvp;
+
+import android.os.Handler;
+import android.os.Message;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import cn.piorpua.baselib.component.LooperPool;
+import cn.piorpua.baselib.metrics.MetricsRegistry;
+import cn.piorpua.baselib.metrics.StripedCounter;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: MVP - 进行中请求表</p>
+ *
+ * 1. 以 key 标识请求, 相同 key 的并发请求共享同一次加载, 加载在 {@link LooperPool} 的线程上执行;<br>
+ * 2. 加载完成后移除该 key, 结果经各 {@link MVPBasePresenter} 的内部主线程分发给仍存活的等待方;<br>
+ * 3. {@link MVPBasePresenter#onDestroy()} 时移除该 Presenter 的全部等待, 加载不会中断, 结果不再分发给它;<br>
+ * 4. 加载抛出任何异常(包括 {@link Error})都会移除该 key, 并以 onError 分发;<br>
+ *
+ * 注意: 表中持有首个请求方的 {@link Loader} 直到加载结束, 即使该请求方已 detach。
+ * Loader 为 Presenter 的匿名内部类时, 加载期间该 Presenter 无法回收, 应使用静态内部类并只持有所需数据。
+ *
+ * 通过 {@link MVPBasePresenter#requestShared(String, Loader, Callback)} 使用。
+ */
+public final class MVPRequestTable {
+
+    /***
+     * 加载, 运行在后台线程<br>
+     * 加载结束前被请求表持有, 不应隐式引用 Presenter 或 View
+     */
+    public interface Loader<T> {
+
+        @WorkerThread
+        @Nullable T load() throws Exception;
+    }
+
+    /*** 结果回调, 运行在主线程 */
+    public interface Callback<T> {
+
+        @MainThread
+        void onResult(@Nullable T result);
+
+        @MainThread
+        void onError(@NonNull Exception e);
+    }
+
+    /*** 分发给单个等待方的结果, 作为 {@link Message#obj} 发送 */
+    static final class Delivery {
+
+        private final @NonNull Callback<Object> mCallback;
+        private final @Nullable Object mResult;
+        private final @Nullable Exception mError;
+
+        private Delivery(@NonNull Callback<Object> callback,
+                         @Nullable Object result, @Nullable Exception error) {
+
+            mCallback = callback;
+            mResult = result;
+            mError = error;
+        }
+
+        @MainThread
+        void deliver() {
+            if (mError != null) {
+                mCallback.onError(mError);
+            } else {
+                mCallback.onResult(mResult);
+            }
+        }
+    }
+
+    /*** 等待方 */
+    private static final class Waiter {
+
+        final @NonNull MVPBasePresenter mPresenter;
+        final @NonNull Handler mHandler;
+        final @NonNull Callback<Object> mCallback;
+
+        Waiter(@NonNull MVPBasePresenter presenter,
+               @NonNull Handler handler, @NonNull Callback<Object> callback) {
+
+            mPresenter = presenter;
+            mHandler = handler;
+            mCallback = callback;
+        }
+    }
+
+    /*** 分发结果的消息类型, 由 {@link MVPBasePresenter} 内部处理 */
+    static final int MSG_DELIVERY = Integer.MIN_VALUE;
+
+    private static final StripedCounter sLoadCounter =
+            MetricsRegistry.getInstance().counter("presenter.request.load");
+    private static final StripedCounter sSharedCounter =
+            MetricsRegistry.getInstance().counter("presenter.request.shared");
+
+    private static volatile MVPRequestTable sIns;
+
+    public static @NonNull MVPRequestTable getInstance() {
+        if (sIns == null) {
+            synchronized (MVPRequestTable.class) {
+                if (sIns == null) {
+                    sIns = new MVPRequestTable();
+                }
+            }
+        }
+        return sIns;
+    }
+
+    /*** key -> 等待方 */
+    private final @NonNull Map<String, List<Waiter>> mRequests = new HashMap<String, List<Waiter>>();
+
+    private MVPRequestTable() {}
+
+    /*** 正在加载的请求数 */
+    public int size() {
+        synchronized (mRequests) {
+            return mRequests.size();
+        }
+    }
+
+    /*** 该 key 是否正在加载 */
+    public boolean isInFlight(@NonNull String key) {
+        synchronized (mRequests) {
+            return mRequests.containsKey(key);
+        }
+    }
+
+    /***
+     * 加入请求, key 正在加载时只追加等待方
+     * @param handler 分发结果的主线程 Handler
+     */
+    @SuppressWarnings("unchecked")
+    @MainThread
+    <T> void request(@NonNull String key, @NonNull Loader<T> loader,
+                     @NonNull MVPBasePresenter presenter, @NonNull Handler handler,
+                     @NonNull Callback<T> callback) {
+
+        Waiter waiter = new Waiter(presenter, handler, (Callback<Object>) callback);
+        synchronized (mRequests) {
+            List<Waiter> waiters = mRequests.get(key);
+            if (waiters != null) {
+                waiters.add(waiter);
+                sSharedCounter.increment();
+                return;
+            }
+
+            waiters = new ArrayList<Waiter>(2);
+            waiters.add(waiter);
+            mRequests.put(key, waiters);
+        }
+
+        sLoadCounter.increment();
+        load(key, loader);
+    }
+
+    /*** 移除 Presenter 的全部等待 */
+    @MainThread
+    void detach(@NonNull MVPBasePresenter presenter) {
+        synchronized (mRequests) {
+            for (List<Waiter> waiters : mRequests.values()) {
+                Iterator<Waiter> iterator = waiters.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().mPresenter == presenter) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private <T> void load(@NonNull final String key, @NonNull final Loader<T> loader) {
+        final LooperPool.Lease lease = LooperPool.getInstance().acquire();
+        lease.getHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                Object result = null;
+                Exception error = null;
+                try {
+                    result = loader.load();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    error = e;
+                } catch (Throwable t) {
+                    // 分发后继续抛出
+                    error = new RuntimeException(t);
+                    throw t;
+                } finally {
+                    lease.release();
+                    // 无论如何都移除该 key, 否则后续相同 key 的请求只会等待
+                    dispatch(key, result, error);
+                }
+            }
+        });
+    }
+
+    private void dispatch(@NonNull String key, @Nullable Object result, @Nullable Exception error) {
+        List<Waiter> waiters;
+        synchronized (mRequests) {
+            waiters = mRequests.remove(key);
+        }
+        if (waiters == null) {
+            return;
+        }
+
+        for (Waiter waiter : waiters) {
+            Message msg = waiter.mHandler.obtainMessage(MSG_DELIVERY,
+                    new Delivery(waiter.mCallback, result, error));
+            waiter.mHandler.sendMessage(msg);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package cn.piorpua.baselib.architecture.startup;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 启动任务调度器</p>
+ *
+ * 1. 按依赖关系调度 {@link StartupTask}, 无依赖关系的后台任务在有界线程池中并行执行;<br>
+ * 2. 主线程任务在依赖完成后投递到主线程执行;<br>
+ * 3. {@link StartupTask#blockFirstActivity()} 为 true 的任务,
+ *    由 {@link StartupDispatcher#awaitBarrier()} 保证在首个 Activity 创建之前完成;<br>
+ * 4. 记录每个任务的执行耗时({@link StartupRecord}), 并输出到 {@link StartupTracer};<br>
+ */
+public final class StartupDispatcher {
+
+    /*** 任务节点 */
+    private static final class Node {
+
+        private final @NonNull StartupTask mTask;
+        private final @NonNull StartupRecord mRecord;
+
+        private final @NonNull List<Node> mChildren = new ArrayList<Node>();
+
+        /*** 未完成的依赖数量 */
+        private final AtomicInteger mPending = new AtomicInteger();
+
+        Node(@NonNull StartupTask task) {
+            mTask = task;
+            mRecord = new StartupRecord(task);
+        }
+    }
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    /*** 后台线程池大小: 充分利用 CPU 核数, 且有上限 */
+    private static final int POOL_SIZE = Math.max(2, Math.min(CPU_COUNT, 8));
+    /*** 后台线程空闲存活时长(s) */
+    private static final long KEEP_ALIVE_SECONDS = 5L;
+
+    /*** 等待 barrier 时检查主线程任务的间隔(ms) */
+    private static final long BARRIER_POLL_MILLIS = 5L;
+
+    private final @NonNull Map<String, Node> mNodes = new LinkedHashMap<String, Node>();
+
+    /*** 已就绪的主线程任务 */
+    private final @NonNull BlockingQueue<Node> mMainQueue = new LinkedBlockingQueue<Node>();
+
+    private final @NonNull Runnable mDrainMainQueue = new Runnable() {
+        @Override
+        public void run() {
+            drainMainQueue();
+        }
+    };
+
+    private @NonNull CountDownLatch mBarrier = new CountDownLatch(0);
+    private @NonNull CountDownLatch mFinished = new CountDownLatch(0);
+
+    private ThreadPoolExecutor mExecutor;
+    private Handler mMainHandler;
+    private Context mContext;
+
+    private volatile boolean mStarted;
+
+    /*** 添加启动任务, 需在 {@link StartupDispatcher#start(Context)} 之前调用 */
+    @MainThread
+    public @NonNull StartupDispatcher addTask(@NonNull StartupTask task) {
+        if (mStarted) {
+            throw new IllegalStateException("Startup dispatcher already started.");
+        }
+
+        if (mNodes.containsKey(task.getName())) {
+            throw new IllegalArgumentException("Duplicate startup task: " + task.getName());
+        }
+
+        mNodes.put(task.getName(), new Node(task));
+        return this;
+    }
+
+    /*** 开始调度, 当前已就绪的主线程任务将被同步执行 */
+    @MainThread
+    public void start(@NonNull Context ctx) {
+        if (mStarted) {
+            return;
+        }
+
+        buildGraph();
+
+        mStarted = true;
+        if (mNodes.isEmpty()) {
+            return;
+        }
+
+        mContext = ctx.getApplicationContext() == null ? ctx : ctx.getApplicationContext();
+        mMainHandler = new Handler(Looper.getMainLooper());
+
+        int barrierCount = 0;
+        for (Node node : mNodes.values()) {
+            if (node.mTask.blockFirstActivity()) {
+                ++barrierCount;
+            }
+        }
+        mBarrier = new CountDownLatch(barrierCount);
+        mFinished = new CountDownLatch(mNodes.size());
+
+        mExecutor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                return new Thread(r, "Startup-" + mCount.incrementAndGet());
+            }
+        });
+        mExecutor.allowCoreThreadTimeOut(true);
+
+        for (Node node : mNodes.values()) {
+            if (node.mPending.get() == 0) {
+                dispatch(node);
+            }
+        }
+
+        drainMainQueue();
+    }
+
+    /**
+     * 等待所有 {@link StartupTask#blockFirstActivity()} 任务完成<br>
+     * 在主线程调用时, 等待期间将执行已就绪的主线程任务。
+     */
+    public void awaitBarrier() {
+        if (!mStarted) {
+            return;
+        }
+
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            awaitQuietly(mBarrier);
+            return;
+        }
+
+        while (mBarrier.getCount() > 0) {
+            Node node;
+            try {
+                node = mMainQueue.poll(BARRIER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            if (node != null) {
+                execute(node);
+            }
+        }
+    }
+
+    /*** 所有任务是否已执行结束 */
+    public boolean isFinished() {
+        return mStarted && mFinished.getCount() == 0;
+    }
+
+    /*** 获取任务执行记录(按添加顺序) */
+    public @NonNull List<StartupRecord> getRecords() {
+        List<StartupRecord> records = new ArrayList<StartupRecord>(mNodes.size());
+        for (Node node : mNodes.values()) {
+            records.add(node.mRecord);
+        }
+        return records;
+    }
+
+    /*** 建立依赖关系, 并检查未知依赖与循环依赖 */
+    private void buildGraph() {
+        for (Node node : mNodes.values()) {
+            for (String dependency : node.mTask.getDependencies()) {
+                Node parent = mNodes.get(dependency);
+                if (parent == null) {
+                    throw new IllegalArgumentException("Unknown startup dependency: " +
+                            node.mTask.getName() + " -> " + dependency);
+                }
+                parent.mChildren.add(node);
+                node.mPending.incrementAndGet();
+            }
+        }
+
+        Map<Node, Integer> pending = new LinkedHashMap<Node, Integer>();
+        Queue<Node> ready = new ArrayDeque<Node>();
+        for (Node node : mNodes.values()) {
+            int count = node.mPending.get();
+            pending.put(node, count);
+            if (count == 0) {
+                ready.offer(node);
+            }
+        }
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            ++visited;
+            for (Node child : node.mChildren) {
+                int count = pending.get(child) - 1;
+                pending.put(child, count);
+                if (count == 0) {
+                    ready.offer(child);
+                }
+            }
+        }
+
+        if (visited != mNodes.size()) {
+            throw new IllegalArgumentException("Startup tasks contain a dependency cycle.");
+        }
+    }
+
+    private void dispatch(@NonNull final Node node) {
+        node.mRecord.markReady();
+
+        if (node.mTask.runOnMainThread()) {
+            mMainQueue.offer(node);
+            mMainHandler.post(mDrainMainQueue);
+            return;
+        }
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                execute(node);
+            }
+        });
+    }
+
+    private void drainMainQueue() {
+        Node node;
+        while ((node = mMainQueue.poll()) != null) {
+            execute(node);
+        }
+    }
+
+    private void execute(@NonNull Node node) {
+        Throwable error = null;
+
+        StartupTracer.Event event = StartupTracer.getInstance().beginSection(
+                StartupTracer.EVENT_TASK_PREFIX + node.mTask.getName());
+        node.mRecord.markStart();
+        try {
+            node.mTask.run(mContext);
+        } catch (Throwable e) {
+            error = e;
+            e.printStackTrace();
+        }
+        node.mRecord.markEnd(error);
+        StartupTracer.getInstance().endSection(event);
+
+        // 执行失败时仍继续调度依赖方, 避免启动流程被阻塞
+        for (Node child : node.mChildren) {
+            if (child.mPending.decrementAndGet() == 0) {
+                dispatch(child);
+            }
+        }
+
+        if (node.mTask.blockFirstActivity()) {
+            mBarrier.countDown();
+        }
+
+        mFinished.countDown();
+        if (mFinished.getCount() == 0) {
+            mExecutor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(@NonNull CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
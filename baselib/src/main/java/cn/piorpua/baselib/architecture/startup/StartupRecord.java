@@ -0,0 +1,104 @@
+package cn.piorpua.baselib.architecture.startup;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 启动任务执行记录</p>
+ *
+ * 时间均为 {@link System#nanoTime()}。
+ */
+public final class StartupRecord {
+
+    private final @NonNull String mName;
+
+    private final boolean mMainThread;
+
+    private volatile long mReadyTime;
+    private volatile long mStartTime;
+    private volatile long mEndTime;
+
+    private volatile @Nullable String mThreadName;
+
+    private volatile @Nullable Throwable mError;
+
+    StartupRecord(@NonNull StartupTask task) {
+        mName = task.getName();
+        mMainThread = task.runOnMainThread();
+    }
+
+    /*** 任务名称 */
+    public @NonNull String getName() {
+        return mName;
+    }
+
+    /*** 是否在主线程执行 */
+    public boolean isMainThread() {
+        return mMainThread;
+    }
+
+    /*** 依赖全部完成, 可执行的时间 */
+    public long getReadyTime() {
+        return mReadyTime;
+    }
+
+    /*** 开始执行的时间 */
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    /*** 执行结束的时间 */
+    public long getEndTime() {
+        return mEndTime;
+    }
+
+    /*** 是否已执行结束 */
+    public boolean isFinished() {
+        return mEndTime != 0L;
+    }
+
+    /*** 从可执行到开始执行的等待时长(ns) */
+    public long getWaitNanos() {
+        return mStartTime == 0L ? 0L : mStartTime - mReadyTime;
+    }
+
+    /*** 执行耗时(ns) */
+    public long getCostNanos() {
+        return mEndTime == 0L ? 0L : mEndTime - mStartTime;
+    }
+
+    /*** 执行线程名称 */
+    public @Nullable String getThreadName() {
+        return mThreadName;
+    }
+
+    /*** 执行异常, 执行成功时为 NULL */
+    public @Nullable Throwable getError() {
+        return mError;
+    }
+
+    void markReady() {
+        mReadyTime = System.nanoTime();
+    }
+
+    void markStart() {
+        mThreadName = Thread.currentThread().getName();
+        mStartTime = System.nanoTime();
+    }
+
+    void markEnd(@Nullable Throwable error) {
+        mError = error;
+        mEndTime = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return mName + " [" + mThreadName + "] wait " + (getWaitNanos() / 1000000.0f) +
+                "ms, cost " + (getCostNanos() / 1000000.0f) + "ms" +
+                (mError == null ? "" : ", error " + mError);
+    }
+}
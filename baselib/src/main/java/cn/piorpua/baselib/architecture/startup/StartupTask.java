@@ -0,0 +1,75 @@
+package cn.piorpua.baselib.architecture.startup;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 启动任务</p>
+ *
+ * 1. 以名称标识, 可声明所依赖的其他任务名称;<br>
+ * 2. 可指定执行线程(主线程/后台线程), 默认在后台线程执行;<br>
+ * 3. 可指定是否需在首个 Activity 创建之前完成, 默认不需要;<br>
+ */
+public abstract class StartupTask {
+
+    private final @NonNull String mName;
+
+    private final @NonNull List<String> mDependencies;
+
+    public StartupTask(@NonNull String name, @Nullable String... dependencies) {
+        if (TextUtils.isEmpty(name)) {
+            throw new IllegalArgumentException("Illegal startup task name.");
+        }
+
+        mName = name;
+
+        List<String> list = new ArrayList<String>();
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                if (TextUtils.isEmpty(dependency)) {
+                    throw new IllegalArgumentException("Illegal startup dependency of " + name);
+                }
+                list.add(dependency);
+            }
+        }
+        mDependencies = Collections.unmodifiableList(list);
+    }
+
+    /*** 任务名称 */
+    public final @NonNull String getName() {
+        return mName;
+    }
+
+    /*** 所依赖的任务名称 */
+    public final @NonNull List<String> getDependencies() {
+        return mDependencies;
+    }
+
+    /*** 是否在主线程执行, 默认为 false */
+    public boolean runOnMainThread() {
+        return false;
+    }
+
+    /*** 是否需在首个 Activity 创建之前完成, 默认为 false */
+    public boolean blockFirstActivity() {
+        return false;
+    }
+
+    /*** 执行任务 */
+    protected abstract void run(@NonNull Context ctx) throws Exception;
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
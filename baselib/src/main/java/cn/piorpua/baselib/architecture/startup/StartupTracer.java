@@ -0,0 +1,211 @@
+package cn.piorpua.baselib.architecture.startup;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 启动追踪</p>
+ *
+ * 1. 记录启动过程中的时间点(进程启动, Application.onCreate, 各启动任务, 首个 Activity 创建, 首帧绘制);<br>
+ * 2. 区间同时输出为 {@link Trace} section (API 18+), 可在 systrace/Perfetto 中查看;<br>
+ * 3. 提供结构化的内存报告({@link StartupTracer#getEvents()}), 时间均相对于进程启动;<br>
+ */
+public final class StartupTracer {
+
+    /*** 事件名称: Application.onCreate */
+    public static final String EVENT_APPLICATION_CREATE = "Application.onCreate";
+    /*** 事件名称: 等待启动任务 barrier */
+    public static final String EVENT_STARTUP_BARRIER = "Startup.awaitBarrier";
+    /*** 事件名称: 首个 Activity 创建 */
+    public static final String EVENT_FIRST_ACTIVITY_CREATED = "FirstActivity.created";
+    /*** 事件名称: 首帧绘制完成 */
+    public static final String EVENT_FIRST_FRAME_DRAWN = "FirstFrame.drawn";
+    /*** 启动任务事件名称前缀 */
+    public static final String EVENT_TASK_PREFIX = "Startup:";
+
+    /*** {@link Trace#beginSection(String)} 名称最大长度 */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    /*** 追踪事件: 区间 或 时间点(开始时间与结束时间相同) */
+    public static final class Event {
+
+        private final @NonNull String mName;
+        private final @NonNull String mThreadName;
+
+        private final long mStartNanos;
+        private volatile long mEndNanos;
+
+        private final boolean mSection;
+
+        Event(@NonNull String name, long startNanos, boolean section) {
+            mName = name;
+            mThreadName = Thread.currentThread().getName();
+            mStartNanos = startNanos;
+            mEndNanos = section ? 0L : startNanos;
+            mSection = section;
+        }
+
+        /*** 事件名称 */
+        public @NonNull String getName() {
+            return mName;
+        }
+
+        /*** 事件所在线程名称 */
+        public @NonNull String getThreadName() {
+            return mThreadName;
+        }
+
+        /*** 是否为区间事件 */
+        public boolean isSection() {
+            return mSection;
+        }
+
+        /*** 是否已结束 */
+        public boolean isFinished() {
+            return mEndNanos != 0L;
+        }
+
+        /*** 相对进程启动的开始时间(ms) */
+        public float getStartMillis() {
+            return toMillis(mStartNanos - getInstance().mProcessStartNanos);
+        }
+
+        /*** 相对进程启动的结束时间(ms), 未结束时为 -1 */
+        public float getEndMillis() {
+            long end = mEndNanos;
+            return end == 0L ? -1.0f : toMillis(end - getInstance().mProcessStartNanos);
+        }
+
+        /*** 区间耗时(ms), 时间点或未结束时为 0 */
+        public float getDurationMillis() {
+            long end = mEndNanos;
+            return end == 0L ? 0.0f : toMillis(end - mStartNanos);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append('+').append(getStartMillis()).append("ms ").append(mName)
+                    .append(" [").append(mThreadName).append(']');
+            if (mSection) {
+                builder.append(" cost ").append(getDurationMillis()).append("ms");
+            }
+            return builder.toString();
+        }
+    }
+
+    private static final StartupTracer sIns = new StartupTracer();
+
+    public static @NonNull StartupTracer getInstance() {
+        return sIns;
+    }
+
+    /*** 进程启动时间, 以 {@link System#nanoTime()} 为基准 */
+    private final long mProcessStartNanos;
+
+    /*** 进程启动时间是否为系统提供(API 24+), 否则为本类加载时间 */
+    private final boolean mProcessStartExact;
+
+    private final @NonNull List<Event> mEvents = new ArrayList<Event>();
+
+    private StartupTracer() {
+        long nowNanos = System.nanoTime();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            long sinceStartMillis = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+            mProcessStartNanos = nowNanos - sinceStartMillis * 1000000L;
+            mProcessStartExact = true;
+        } else {
+            mProcessStartNanos = nowNanos;
+            mProcessStartExact = false;
+        }
+    }
+
+    /*** 进程启动时间是否为系统提供的准确值(API 24+), 否则近似为追踪器初始化时间 */
+    public boolean isProcessStartExact() {
+        return mProcessStartExact;
+    }
+
+    /*** 记录时间点 */
+    public void mark(@NonNull String name) {
+        add(new Event(name, System.nanoTime(), false));
+    }
+
+    /**
+     * 开始区间, 并开始 {@link Trace} section<br>
+     * 需在同一线程调用 {@link StartupTracer#endSection(Event)}
+     */
+    public @NonNull Event beginSection(@NonNull String name) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH ?
+                    name.substring(0, MAX_SECTION_NAME_LENGTH) : name);
+        }
+
+        Event event = new Event(name, System.nanoTime(), true);
+        add(event);
+        return event;
+    }
+
+    /*** 结束区间, 并结束 {@link Trace} section */
+    public void endSection(@Nullable Event event) {
+        if (event == null || !event.mSection || event.mEndNanos != 0L) {
+            return;
+        }
+
+        event.mEndNanos = System.nanoTime();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+    /*** 获取已记录事件(按记录顺序) */
+    public @NonNull List<Event> getEvents() {
+        synchronized (mEvents) {
+            return new ArrayList<Event>(mEvents);
+        }
+    }
+
+    /*** 获取指定名称的第一个事件 */
+    public @Nullable Event findEvent(@NonNull String name) {
+        synchronized (mEvents) {
+            for (Event event : mEvents) {
+                if (event.mName.equals(name)) {
+                    return event;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*** 文本报告 */
+    public @NonNull String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Startup trace (process start ")
+                .append(mProcessStartExact ? "exact" : "approximate").append(")\n");
+        for (Event event : getEvents()) {
+            builder.append("  ").append(event).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private void add(@NonNull Event event) {
+        synchronized (mEvents) {
+            mEvents.add(event);
+        }
+    }
+
+    private static float toMillis(long nanos) {
+        return nanos / 1000000.0f;
+    }
+}
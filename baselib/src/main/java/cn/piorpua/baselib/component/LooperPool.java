@@ -0,0 +1,366 @@
+package cn.piorpua.baselib.component;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 后台 Looper 池</p>
+ *
+ * 1. 有界: 最多 maxSize 个命名的 {@link HandlerThread}, 替代各处自行创建的 HandlerThread;<br>
+ * 2. {@link LooperPool#acquire()} 选择负载最低(租约数, 待处理消息数)的线程, 不足上限且无空闲线程时创建新线程;<br>
+ * 3. 线程上没有租约, 且 keepAlive 内没有消息入队或处理, 已入队消息的预定时间均已过去后退出回收;<br>
+ * 4. 统计每个线程的租约数, 待处理消息数与已处理消息数({@link LooperPool#getStats()});<br>
+ *
+ * 仅统计经由 {@link Lease#getHandler()} 或以 {@link Lease} 构造的 {@link ReferenceHandler} 发送的消息;
+ * 通过 remove* 移除的消息无法扣除, postAtFrontOfQueue 的消息不计入入队, 待处理消息数为近似值, 仅用于统计与选择线程。
+ * 归还租约后仍发送到该线程的消息不会阻止回收。
+ *
+ * 示例
+ * <pre>
+ *     mLease = LooperPool.getInstance().acquire();
+ *     mHandler = new InnerHandler(this, mLease);
+ *     ...
+ *     mLease.release();
+ * </pre>
+ */
+public final class LooperPool {
+
+    /*** 租约: 持有期间对应线程不会被回收 */
+    public static final class Lease {
+
+        private final @NonNull Worker mWorker;
+        private volatile boolean mReleased;
+        private @Nullable Handler mHandler;
+
+        private Lease(@NonNull Worker worker) {
+            mWorker = worker;
+        }
+
+        public @NonNull Looper getLooper() {
+            return mWorker.mLooper;
+        }
+
+        /*** 计数的 Handler, 同一租约复用 */
+        public synchronized @NonNull Handler getHandler() {
+            if (mHandler == null) {
+                mHandler = new CountingHandler(this);
+            }
+            return mHandler;
+        }
+
+        public boolean isReleased() {
+            return mReleased;
+        }
+
+        /*** 归还租约, 重复调用无副作用 */
+        public void release() {
+            mWorker.mPool.release(this);
+        }
+
+        void onEnqueue(long uptimeMillis) {
+            mWorker.onEnqueue(uptimeMillis);
+        }
+
+        void onDispatch() {
+            mWorker.onDispatch();
+        }
+    }
+
+    /*** 线程统计快照 */
+    public static final class WorkerStats {
+
+        private final @NonNull String mName;
+        private final int mLeaseCount;
+        private final int mPendingCount;
+        private final int mMaxPendingCount;
+        private final long mDispatchedCount;
+
+        private WorkerStats(@NonNull Worker worker) {
+            mName = worker.mThread.getName();
+            mLeaseCount = worker.mLeaseCount;
+            mPendingCount = worker.getPendingCount();
+            mMaxPendingCount = worker.mMaxPendingCount;
+            mDispatchedCount = worker.mDispatchedCount.get();
+        }
+
+        public @NonNull String getName() {
+            return mName;
+        }
+
+        public int getLeaseCount() {
+            return mLeaseCount;
+        }
+
+        /*** 待处理消息数(近似值) */
+        public int getPendingCount() {
+            return mPendingCount;
+        }
+
+        /*** 待处理消息数峰值 */
+        public int getMaxPendingCount() {
+            return mMaxPendingCount;
+        }
+
+        public long getDispatchedCount() {
+            return mDispatchedCount;
+        }
+
+        @Override
+        public String toString() {
+            return mName + "{leases=" + mLeaseCount + ", pending=" + mPendingCount +
+                    ", maxPending=" + mMaxPendingCount + ", dispatched=" + mDispatchedCount + "}";
+        }
+    }
+
+    /*** 计数的 Handler */
+    private static final class CountingHandler extends Handler {
+
+        private final @NonNull Lease mLease;
+
+        CountingHandler(@NonNull Lease lease) {
+            super(lease.getLooper());
+            mLease = lease;
+        }
+
+        @Override
+        public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+            boolean sent = super.sendMessageAtTime(msg, uptimeMillis);
+            if (sent) {
+                mLease.onEnqueue(uptimeMillis);
+            }
+            return sent;
+        }
+
+        @Override
+        public void dispatchMessage(Message msg) {
+            mLease.onDispatch();
+            super.dispatchMessage(msg);
+        }
+    }
+
+    private static final class Worker implements Runnable {
+
+        final @NonNull LooperPool mPool;
+        final @NonNull HandlerThread mThread;
+        final @NonNull Looper mLooper;
+        final @NonNull Handler mHandler;
+
+        /*** 需持有 {@link LooperPool} 锁 */
+        int mLeaseCount;
+        /*** 安排回收时的活动计数, 需持有 {@link LooperPool} 锁 */
+        long mReclaimActivity;
+
+        final @NonNull AtomicInteger mPendingCount = new AtomicInteger();
+        final @NonNull AtomicLong mDispatchedCount = new AtomicLong();
+        volatile int mMaxPendingCount;
+
+        /*** 入队与处理的累计次数, 只增不减, 用于判断空闲 */
+        final @NonNull AtomicLong mActivity = new AtomicLong();
+        /*** 已入队消息的最晚预定时间({@link SystemClock#uptimeMillis()}) */
+        final @NonNull AtomicLong mLatestWhen = new AtomicLong();
+
+        Worker(@NonNull LooperPool pool, @NonNull String name, int priority) {
+            mPool = pool;
+            mThread = new HandlerThread(name, priority);
+            mThread.start();
+            mLooper = mThread.getLooper();
+            mHandler = new Handler(mLooper);
+        }
+
+        void onEnqueue(long uptimeMillis) {
+            mActivity.incrementAndGet();
+            long latest;
+            while (uptimeMillis > (latest = mLatestWhen.get())) {
+                if (mLatestWhen.compareAndSet(latest, uptimeMillis)) {
+                    break;
+                }
+            }
+
+            int pending = mPendingCount.incrementAndGet();
+            if (pending > mMaxPendingCount) {
+                mMaxPendingCount = pending;
+            }
+        }
+
+        void onDispatch() {
+            mActivity.incrementAndGet();
+            mPendingCount.decrementAndGet();
+            mDispatchedCount.incrementAndGet();
+        }
+
+        int getPendingCount() {
+            return Math.max(0, mPendingCount.get());
+        }
+
+        /*** 空闲回收 */
+        @Override
+        public void run() {
+            mPool.reclaim(this);
+        }
+
+        void quit() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                mThread.quitSafely();
+            } else {
+                mThread.quit();
+            }
+        }
+    }
+
+    /*** 默认空闲回收时间 */
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30 * 1000L;
+
+    private static volatile LooperPool sIns;
+
+    /*** 默认池: 最多 max(2, min(CPU 核数, 4)) 个后台优先级线程 */
+    public static @NonNull LooperPool getInstance() {
+        if (sIns == null) {
+            synchronized (LooperPool.class) {
+                if (sIns == null) {
+                    int cpu = Runtime.getRuntime().availableProcessors();
+                    sIns = new LooperPool("LooperPool", Math.max(2, Math.min(cpu, 4)),
+                            DEFAULT_KEEP_ALIVE_MILLIS, Process.THREAD_PRIORITY_BACKGROUND);
+                }
+            }
+        }
+        return sIns;
+    }
+
+    private final @NonNull String mName;
+    private final int mMaxSize;
+    private final long mKeepAliveMillis;
+    private final int mPriority;
+
+    private final @NonNull List<Worker> mWorkers = new ArrayList<Worker>();
+    private int mNextId;
+
+    /**
+     * @param name 线程名前缀
+     * @param maxSize 最大线程数
+     * @param keepAliveMillis 无租约线程的空闲回收时间
+     * @param priority 线程优先级({@link Process#THREAD_PRIORITY_BACKGROUND} 等)
+     */
+    public LooperPool(@NonNull String name, int maxSize, long keepAliveMillis, int priority) {
+        if (maxSize <= 0 || keepAliveMillis < 0L) {
+            throw new IllegalArgumentException("Illegal LooperPool size or keep alive time.");
+        }
+
+        mName = name;
+        mMaxSize = maxSize;
+        mKeepAliveMillis = keepAliveMillis;
+        mPriority = priority;
+    }
+
+    /*** 获取租约 */
+    public @NonNull Lease acquire() {
+        synchronized (this) {
+            Worker worker = selectWorker();
+            if (worker == null) {
+                worker = new Worker(this, mName + "-" + (++mNextId), mPriority);
+                mWorkers.add(worker);
+            }
+
+            if (worker.mLeaseCount++ == 0) {
+                // 取消回收
+                worker.mHandler.removeCallbacks(worker);
+            }
+            return new Lease(worker);
+        }
+    }
+
+    /*** 当前线程数 */
+    public synchronized int getWorkerCount() {
+        return mWorkers.size();
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /*** 各线程统计快照 */
+    public synchronized @NonNull List<WorkerStats> getStats() {
+        List<WorkerStats> stats = new ArrayList<WorkerStats>(mWorkers.size());
+        for (Worker worker : mWorkers) {
+            stats.add(new WorkerStats(worker));
+        }
+        return stats;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LooperPool{name=" + mName + ", workers=" + mWorkers.size() + "/" + mMaxSize +
+                ", stats=" + getStats() + "}";
+    }
+
+    /***
+     * 需持有锁
+     * @return NULL 表示应创建新线程
+     */
+    private @Nullable Worker selectWorker() {
+        Worker best = null;
+        for (Worker worker : mWorkers) {
+            if (best == null || worker.mLeaseCount < best.mLeaseCount ||
+                    (worker.mLeaseCount == best.mLeaseCount &&
+                            worker.getPendingCount() < best.getPendingCount())) {
+                best = worker;
+            }
+        }
+
+        if (best == null || (best.mLeaseCount > 0 && mWorkers.size() < mMaxSize)) {
+            return null;
+        }
+        return best;
+    }
+
+    private synchronized void release(@NonNull Lease lease) {
+        if (lease.mReleased) {
+            return;
+        }
+        lease.mReleased = true;
+
+        Worker worker = lease.mWorker;
+        if (--worker.mLeaseCount == 0) {
+            worker.mReclaimActivity = worker.mActivity.get();
+            worker.mHandler.postDelayed(worker, mKeepAliveMillis);
+        }
+    }
+
+    private void reclaim(@NonNull Worker worker) {
+        synchronized (this) {
+            if (worker.mLeaseCount > 0) {
+                return;
+            }
+
+            // 待处理消息数无法扣除被 remove* 的消息, 不作为回收依据:
+            // 期间有消息入队或处理, 或已入队消息的预定时间未到, 则延后回收
+            long activity = worker.mActivity.get();
+            long wait = worker.mLatestWhen.get() - SystemClock.uptimeMillis();
+            if (activity != worker.mReclaimActivity || wait > 0L) {
+                worker.mReclaimActivity = activity;
+                worker.mHandler.postDelayed(worker, Math.max(mKeepAliveMillis, wait));
+                return;
+            }
+
+            if (!mWorkers.remove(worker)) {
+                return;
+            }
+        }
+        worker.quit();
+    }
+}
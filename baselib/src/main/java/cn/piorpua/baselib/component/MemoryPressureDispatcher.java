@@ -0,0 +1,183 @@
+package cn.piorpua.baselib.component;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.FloatRange;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 内存压力分发器</p>
+ *
+ * 1. 统一接收 {@link ComponentCallbacks2#onTrimMemory(int)} 与 {@link ComponentCallbacks2#onLowMemory()}
+ *    (由 BaseApplication 转发), 分发给已注册的 {@link Trimmable};<br>
+ * 2. 按优先级顺序分发, 优先级数值越小越先被回收;<br>
+ * 3. 每个订阅者可指定 {@link TrimPolicy}, 将回收级别映射为需释放的比例;<br>
+ *
+ * 默认策略({@link TrimPolicy#DEFAULT}):
+ * <pre>
+ *     TRIM_MEMORY_RUNNING_MODERATE     25%
+ *     TRIM_MEMORY_RUNNING_LOW          50%
+ *     TRIM_MEMORY_RUNNING_CRITICAL     75%
+ *     TRIM_MEMORY_UI_HIDDEN            25%
+ *     TRIM_MEMORY_BACKGROUND           50%
+ *     TRIM_MEMORY_MODERATE             75%
+ *     TRIM_MEMORY_COMPLETE / onLowMemory   100%
+ * </pre>
+ */
+public final class MemoryPressureDispatcher {
+
+    /*** 可回收内存的对象(通常为缓存) */
+    public interface Trimmable {
+
+        /**
+         * 释放内存
+         * @param fraction 需释放的比例, (0, 1], 为 1 时应释放全部
+         * @param level {@link ComponentCallbacks2} 回收级别, onLowMemory 时为
+         *              {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE}
+         */
+        void onTrimMemory(@FloatRange(from = 0.0, to = 1.0) float fraction, int level);
+    }
+
+    /*** 回收策略: 将回收级别映射为需释放的比例 */
+    public interface TrimPolicy {
+
+        /*** 默认策略 */
+        TrimPolicy DEFAULT = new TrimPolicy() {
+            @Override
+            public float getTrimFraction(int level) {
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+                    return 1.0f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+                    return 0.75f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+                    return 0.5f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+                    return 0.25f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+                    return 0.75f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+                    return 0.5f;
+                }
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+                    return 0.25f;
+                }
+                return 0.0f;
+            }
+        };
+
+        /*** @return 需释放的比例, [0, 1], 为 0 时不回调 */
+        float getTrimFraction(int level);
+    }
+
+    /*** 订阅记录 */
+    private static final class Subscription {
+
+        private final @NonNull Trimmable mTrimmable;
+        private final int mPriority;
+        private final @NonNull TrimPolicy mPolicy;
+
+        Subscription(@NonNull Trimmable trimmable, int priority, @NonNull TrimPolicy policy) {
+            mTrimmable = trimmable;
+            mPriority = priority;
+            mPolicy = policy;
+        }
+    }
+
+    /*** 默认优先级 */
+    public static final int PRIORITY_DEFAULT = 0;
+
+    private static final MemoryPressureDispatcher sIns = new MemoryPressureDispatcher();
+
+    public static @NonNull MemoryPressureDispatcher getInstance() {
+        return sIns;
+    }
+
+    /*** 按优先级升序排列 */
+    private final @NonNull CopyOnWriteArrayList<Subscription> mSubscriptions =
+            new CopyOnWriteArrayList<Subscription>();
+
+    private volatile int mLastLevel = -1;
+
+    private MemoryPressureDispatcher() {}
+
+    /*** 以默认优先级和默认策略注册 */
+    public void register(@NonNull Trimmable trimmable) {
+        register(trimmable, PRIORITY_DEFAULT, TrimPolicy.DEFAULT);
+    }
+
+    /**
+     * 注册, 同一对象重复注册时以最后一次为准<br>
+     * 分发器强引用订阅者, 不再需要时需调用 {@link MemoryPressureDispatcher#unregister(Trimmable)}
+     * @param priority 优先级, 数值越小越先被回收
+     */
+    public void register(@NonNull Trimmable trimmable, int priority, @NonNull TrimPolicy policy) {
+        synchronized (mSubscriptions) {
+            remove(trimmable);
+
+            Subscription subscription = new Subscription(trimmable, priority, policy);
+            int index = 0;
+            int size = mSubscriptions.size();
+            while (index < size && mSubscriptions.get(index).mPriority <= priority) {
+                ++index;
+            }
+            mSubscriptions.add(index, subscription);
+        }
+    }
+
+    /*** 取消注册 */
+    public void unregister(@NonNull Trimmable trimmable) {
+        synchronized (mSubscriptions) {
+            remove(trimmable);
+        }
+    }
+
+    /*** 最近一次分发的回收级别, 未分发过时为 -1 */
+    public int getLastLevel() {
+        return mLastLevel;
+    }
+
+    /*** 分发 {@link ComponentCallbacks2#onTrimMemory(int)} */
+    public void dispatchTrimMemory(int level) {
+        mLastLevel = level;
+
+        for (Subscription subscription : mSubscriptions) {
+            float fraction = subscription.mPolicy.getTrimFraction(level);
+            if (fraction <= 0.0f) {
+                continue;
+            }
+
+            try {
+                subscription.mTrimmable.onTrimMemory(Math.min(fraction, 1.0f), level);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /*** 分发 {@link ComponentCallbacks2#onLowMemory()}, 视为 {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE} */
+    public void dispatchLowMemory() {
+        dispatchTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    private void remove(@NonNull Trimmable trimmable) {
+        List<Subscription> removed = new ArrayList<Subscription>(1);
+        for (Subscription subscription : mSubscriptions) {
+            if (subscription.mTrimmable == trimmable) {
+                removed.add(subscription);
+            }
+        }
+        mSubscriptions.removeAll(removed);
+    }
+}
@@ -1,11 +1,14 @@
 package cn.piorpua.baselib.component;
 
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import java.lang.ref.WeakReference;
+import cn.piorpua.baselib.metrics.Histogram;
+import cn.piorpua.baselib.metrics.MetricsRegistry;
+import cn.piorpua.baselib.metrics.StripedCounter;
 
 /**
  * Author: piorpua<br>
@@ -14,43 +17,93 @@ import java.lang.ref.WeakReference;
  *
  * <p>带引用的 {@link Handler}</p>
  *
+ * 被引用对象由 {@link ReferenceWatcher} 监视: 被回收后将主动清除该 Handler 中待处理的消息;
+ * {@link ReferenceHandler#detachReference()} 之后仍存活的被引用对象可通过
+ * {@link ReferenceWatcher#getRetainedHosts(long)} 获取。
+ * 后台线程的 Handler 可通过 {@link LooperPool} 的租约构造, 租约由调用方负责归还。
+ *
  * @param <Host> 被引用对象
  */
 public abstract class ReferenceHandler<Host> extends Handler {
 
+    private static final Histogram sDispatchNanos =
+            MetricsRegistry.getInstance().histogram("handler.dispatch.nanos");
+    private static final StripedCounter sDropCounter =
+            MetricsRegistry.getInstance().counter("handler.drop");
+
     protected abstract void handleMessageSticky(@NonNull Host host, @NonNull Message msg);
 
-    private @Nullable WeakReference<Host> mReference;
+    private @Nullable ReferenceWatcher.HostReference<Host> mReference;
+
+    /*** 用于统计消息数, 非 {@link LooperPool} 构造时为 NULL */
+    private final @Nullable LooperPool.Lease mLease;
 
     public ReferenceHandler(Host host) {
-        mReference = new WeakReference<Host>(host);
+        mReference = ReferenceWatcher.watch(host, this);
+        mLease = null;
+    }
+
+    public ReferenceHandler(Host host, @NonNull Looper looper) {
+        super(looper);
+        mReference = ReferenceWatcher.watch(host, this);
+        mLease = null;
+    }
+
+    /*** 运行在 {@link LooperPool} 的线程上, 并计入该线程的消息统计 */
+    public ReferenceHandler(Host host, @NonNull LooperPool.Lease lease) {
+        super(lease.getLooper());
+        mReference = ReferenceWatcher.watch(host, this);
+        mLease = lease;
+    }
+
+    @Override
+    public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+        boolean sent = super.sendMessageAtTime(msg, uptimeMillis);
+        if (sent && mLease != null) {
+            mLease.onEnqueue(uptimeMillis);
+        }
+        return sent;
+    }
+
+    @Override
+    public void dispatchMessage(Message msg) {
+        if (mLease != null) {
+            mLease.onDispatch();
+        }
+        super.dispatchMessage(msg);
     }
 
     @Override
     public final void handleMessage(Message msg) {
         if (mReference == null || msg == null) {
+            sDropCounter.increment();
             return;
         }
 
         Host host = mReference.get();
         if (host == null) {
+            sDropCounter.increment();
             return;
         }
 
         if (!checkHost(host)) {
+            sDropCounter.increment();
             return;
         }
 
+        final long start = System.nanoTime();
         handleMessageSticky(host, msg);
+        sDispatchNanos.recordSince(start);
     }
 
     /*** 清除引用 */
     public final void detachReference() {
-        if (mReference == null) {
+        ReferenceWatcher.HostReference<Host> reference = mReference;
+        if (reference == null) {
             return;
         }
-        mReference.clear();
         mReference = null;
+        ReferenceWatcher.detach(reference);
     }
 
     /**
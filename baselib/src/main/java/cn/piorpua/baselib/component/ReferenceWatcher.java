@@ -0,0 +1,267 @@
+package cn.piorpua.baselib.component;
+
+import android.os.Handler;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link ReferenceHandler} 被引用对象监视器</p>
+ *
+ * 1. 被引用对象被回收后, 由后台线程主动清除对应 {@link Handler} 中待处理的消息;<br>
+ * 2. 跟踪 {@link ReferenceHandler#detachReference()} 之后仍然存活的被引用对象, 提供泄漏报告;<br>
+ *
+ * 监视器对 Handler 只持有弱引用: Handler 常为 Activity/Presenter 的内部类并强引用被引用对象,
+ * 若被静态结构强引用将导致被引用对象永远无法回收。有待处理消息时 Handler 由消息队列强引用, 清除不受影响。
+ */
+public final class ReferenceWatcher {
+
+    /*** 泄漏记录: detach 之后仍然存活的被引用对象 */
+    public static final class RetainedHost {
+
+        private final @NonNull String mHostName;
+        private final @NonNull String mHandlerName;
+        private final long mDetachedTime;
+        private final long mRetainedMillis;
+
+        RetainedHost(@NonNull String hostName, @NonNull String handlerName,
+                     long detachedTime, long retainedMillis) {
+
+            mHostName = hostName;
+            mHandlerName = handlerName;
+            mDetachedTime = detachedTime;
+            mRetainedMillis = retainedMillis;
+        }
+
+        /*** 被引用对象类名 */
+        public @NonNull String getHostName() {
+            return mHostName;
+        }
+
+        /*** Handler 类名 */
+        public @NonNull String getHandlerName() {
+            return mHandlerName;
+        }
+
+        /*** detach 时间({@link SystemClock#uptimeMillis()}) */
+        public long getDetachedTime() {
+            return mDetachedTime;
+        }
+
+        /*** detach 之后已存活时长(ms) */
+        public long getRetainedMillis() {
+            return mRetainedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return mHostName + " (handler: " + mHandlerName +
+                    ") retained " + mRetainedMillis + "ms after detach";
+        }
+    }
+
+    /*** 被引用对象的弱引用, 被回收后由监视线程清除 Handler 中的消息 */
+    static final class HostReference<Host> extends WeakReference<Host> {
+
+        /*** 弱引用, 避免 静态集合 -> Handler -> 被引用对象 的强引用链 */
+        private final @NonNull WeakReference<Handler> mHandler;
+
+        HostReference(Host host, @NonNull Handler handler) {
+            super(host, sQueue);
+            mHandler = new WeakReference<Handler>(handler);
+        }
+    }
+
+    /*** detach 之后对被引用对象的观察引用 */
+    private static final class DetachedReference extends WeakReference<Object> {
+
+        private final @NonNull String mHostName;
+        private final @NonNull String mHandlerName;
+        private final long mDetachedTime;
+
+        DetachedReference(@NonNull Object host, @NonNull Handler handler, long detachedTime) {
+            super(host, sQueue);
+            mHostName = host.getClass().getName();
+            mHandlerName = handler.getClass().getName();
+            mDetachedTime = detachedTime;
+        }
+    }
+
+    /*** 最多跟踪的 detach 引用数量, 超出后不再记录 */
+    private static final int MAX_TRACKED_DETACHED = 256;
+
+    private static final ReferenceQueue<Object> sQueue = new ReferenceQueue<Object>();
+
+    /*** 引用对象自身需强可达, 才能在被引用对象回收后进入 {@link #sQueue} */
+    private static final Set<HostReference<?>> sLiveReferences =
+            Collections.newSetFromMap(new ConcurrentHashMap<HostReference<?>, Boolean>());
+    private static final Set<DetachedReference> sDetachedReferences =
+            Collections.newSetFromMap(new ConcurrentHashMap<DetachedReference, Boolean>());
+
+    /*** 因被引用对象回收而清除消息的 Handler 数量 */
+    private static final AtomicLong sPurgedCount = new AtomicLong();
+
+    private static volatile boolean sLeakTrackingEnabled = true;
+
+    private static volatile boolean sStarted;
+
+    private ReferenceWatcher() {}
+
+    /*** 设置是否跟踪 detach 之后仍存活的被引用对象, 默认开启 */
+    public static void setLeakTrackingEnabled(boolean enabled) {
+        sLeakTrackingEnabled = enabled;
+        if (!enabled) {
+            sDetachedReferences.clear();
+        }
+    }
+
+    /*** 是否跟踪 detach 之后仍存活的被引用对象 */
+    public static boolean isLeakTrackingEnabled() {
+        return sLeakTrackingEnabled;
+    }
+
+    /**
+     * 泄漏报告<br>
+     * 获取 detach 之后存活时长超过指定值的被引用对象。
+     * 被引用对象仅在 GC 之后才会被回收, 报告前可视情况主动触发 GC。
+     * @param minRetainedMillis 最小存活时长(ms)
+     */
+    public static @NonNull List<RetainedHost> getRetainedHosts(long minRetainedMillis) {
+        List<RetainedHost> result = new ArrayList<RetainedHost>();
+
+        long now = SystemClock.uptimeMillis();
+        Iterator<DetachedReference> iterator = sDetachedReferences.iterator();
+        while (iterator.hasNext()) {
+            DetachedReference ref = iterator.next();
+            if (ref.get() == null) {
+                iterator.remove();
+                continue;
+            }
+
+            long retained = now - ref.mDetachedTime;
+            if (retained >= minRetainedMillis) {
+                result.add(new RetainedHost(
+                        ref.mHostName, ref.mHandlerName, ref.mDetachedTime, retained));
+            }
+        }
+
+        return result;
+    }
+
+    /*** 因被引用对象回收而主动清除消息的 Handler 数量 */
+    public static long getPurgedHandlerCount() {
+        return sPurgedCount.get();
+    }
+
+    /*** 当前仍在监视的被引用对象数量 */
+    public static int getWatchedCount() {
+        return sLiveReferences.size();
+    }
+
+    /*** 监视被引用对象 */
+    static @NonNull <Host> HostReference<Host> watch(Host host, @NonNull Handler handler) {
+        ensureStarted();
+
+        HostReference<Host> ref = new HostReference<Host>(host, handler);
+        if (host != null) {
+            // 空引用永远不会进入 sQueue, 无需监视
+            sLiveReferences.add(ref);
+        }
+        return ref;
+    }
+
+    /*** 取消监视被引用对象, 若仍存活则开始泄漏跟踪 */
+    static void detach(@NonNull HostReference<?> ref) {
+        sLiveReferences.remove(ref);
+
+        Object host = ref.get();
+        Handler handler = ref.mHandler.get();
+        ref.mHandler.clear();
+        ref.clear();
+
+        if (!sLeakTrackingEnabled || host == null || handler == null) {
+            return;
+        }
+
+        if (sDetachedReferences.size() >= MAX_TRACKED_DETACHED) {
+            return;
+        }
+
+        sDetachedReferences.add(
+                new DetachedReference(host, handler, SystemClock.uptimeMillis()));
+    }
+
+    private static void ensureStarted() {
+        if (sStarted) {
+            return;
+        }
+
+        synchronized (ReferenceWatcher.class) {
+            if (sStarted) {
+                return;
+            }
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    loop();
+                }
+            }, "ReferenceWatcher");
+            thread.setDaemon(true);
+            thread.start();
+
+            sStarted = true;
+        }
+    }
+
+    private static void loop() {
+        while (true) {
+            Reference<?> ref;
+            try {
+                ref = sQueue.remove();
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            if (ref instanceof HostReference) {
+                onHostCollected((HostReference<?>) ref);
+            } else if (ref instanceof DetachedReference) {
+                sDetachedReferences.remove(ref);
+            }
+        }
+    }
+
+    /*** 被引用对象已回收: 清除 Handler 中待处理的消息 */
+    private static void onHostCollected(@NonNull HostReference<?> ref) {
+        if (!sLiveReferences.remove(ref)) {
+            // 已 detach
+            return;
+        }
+
+        Handler handler = ref.mHandler.get();
+        ref.mHandler.clear();
+        if (handler == null) {
+            // Handler 已回收, 说明没有待处理的消息
+            return;
+        }
+
+        handler.removeCallbacksAndMessages(null);
+        sPurgedCount.incrementAndGet();
+    }
+}
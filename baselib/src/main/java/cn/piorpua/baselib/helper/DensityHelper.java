@@ -1,7 +1,12 @@
 package cn.piorpua.baselib.helper;
 
+import android.content.ComponentCallbacks;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.DisplayMetrics;
 
 /**
  * Author: piorpua<br>
@@ -9,32 +14,239 @@ import android.support.annotation.NonNull;
  * Date Created: 17/2/23
  *
  * <p>Brief: 分辨率相关辅助类</p>
+ *
+ * 调用方的 {@link Resources} 即 Application 的 Resources 时, density 与 scaledDensity 缓存,
+ * 在配置(含字体缩放)变化时失效; 常用 dp 值(0 ~ {@link DensityHelper#DP_TABLE_MAX})的换算结果预先计算。
+ * 其他 Resources(如 createConfigurationContext, Presentation, 单独设置字体缩放的 Activity)直接读取其自身的
+ * {@link DisplayMetrics}, 不使用也不写入缓存。
  */
 public final class DensityHelper {
 
+    /*** 预先计算的最大 dp 值 */
+    public static final int DP_TABLE_MAX = 64;
+
+    /*** 分辨率快照 */
+    private static final class Snapshot {
+
+        /*** 来源, 缓存的快照为 Application 的 Resources */
+        private final @NonNull Resources mResources;
+        private final float mDensity;
+        private final float mScaledDensity;
+
+        /*** dp(下标) 转换为 px 的结果, 仅缓存的快照预先计算 */
+        private final @Nullable int[] mDpTable;
+
+        Snapshot(@NonNull Resources resources, boolean table) {
+            DisplayMetrics metrics = resources.getDisplayMetrics();
+            mResources = resources;
+            mDensity = metrics.density;
+            mScaledDensity = metrics.scaledDensity;
+
+            if (table) {
+                mDpTable = new int[DP_TABLE_MAX + 1];
+                for (int dp = 0; dp <= DP_TABLE_MAX; ++dp) {
+                    mDpTable[dp] = (int) (dp * mDensity + 0.5f);
+                }
+            } else {
+                mDpTable = null;
+            }
+        }
+
+        int dp2px(int dpValue) {
+            if (mDpTable != null && dpValue >= 0 && dpValue <= DP_TABLE_MAX) {
+                return mDpTable[dpValue];
+            }
+            return (int) (dpValue * mDensity + 0.5f);
+        }
+    }
+
+    private static volatile @Nullable Snapshot sSnapshot;
+
+    /*** 失效次数, 用于丢弃失效过程中生成的快照 */
+    private static volatile int sGeneration;
+
+    private static boolean sCallbacksRegistered;
+
     private DensityHelper() {}
 
+    /*** 使缓存的分辨率失效, 配置变化时自动调用 */
+    public static void invalidate() {
+        ++sGeneration;
+        sSnapshot = null;
+    }
+
+    /*** 获取 density */
+    public static float getDensity(@NonNull Context ctx) {
+        return snapshot(ctx).mDensity;
+    }
+
+    /*** 获取 scaledDensity */
+    public static float getScaledDensity(@NonNull Context ctx) {
+        return snapshot(ctx).mScaledDensity;
+    }
+
     /*** 根据手机分辨率，将 dp 转换为 px */
     public static int dp2px(@NonNull Context ctx, float dpValue) {
-        final float scale = ctx.getResources().getDisplayMetrics().density;
+        final float scale = snapshot(ctx).mDensity;
         return (int) (dpValue * scale + 0.5f);
     }
 
+    /*** 根据手机分辨率，将 dp 转换为 px, 常用 dp 值直接查表 */
+    public static int dp2px(@NonNull Context ctx, int dpValue) {
+        return snapshot(ctx).dp2px(dpValue);
+    }
+
     /*** 根据手机分辨率，将 px 转换为 dp */
     public static int px2dp(@NonNull Context ctx, float pxValue) {
-        final float scale = ctx.getResources().getDisplayMetrics().density;
+        final float scale = snapshot(ctx).mDensity;
         return (int) (pxValue / scale + 0.5f);
     }
 
     /*** 根据手机分辨率，将 sp 转换为 px */
     public static int sp2px(@NonNull Context ctx, float spValue) {
-        final float fontScale = ctx.getResources().getDisplayMetrics().scaledDensity;
+        final float fontScale = snapshot(ctx).mScaledDensity;
         return (int) (spValue * fontScale + 0.5f);
     }
 
     /*** 根据手机分辨率，将 px 转换为 sp */
     public static int px2sp(@NonNull Context ctx, float pxValue) {
-        final float fontScale = ctx.getResources().getDisplayMetrics().scaledDensity;
+        final float fontScale = snapshot(ctx).mScaledDensity;
         return (int) (pxValue / fontScale + 0.5f);
     }
+
+    // Bulk >>>
+
+    /*** 批量将 dp 转换为 px(原地修改) */
+    public static void dp2px(@NonNull Context ctx, @Nullable int[] values) {
+        if (values == null) {
+            return;
+        }
+
+        final Snapshot snapshot = snapshot(ctx);
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = snapshot.dp2px(values[i]);
+        }
+    }
+
+    /*** 批量将 dp 转换为 px(原地修改, 结果与 {@link DensityHelper#dp2px(Context, float)} 一致) */
+    public static void dp2px(@NonNull Context ctx, @Nullable float[] values) {
+        multiply(values, snapshot(ctx).mDensity);
+    }
+
+    /*** 批量将 px 转换为 dp(原地修改) */
+    public static void px2dp(@NonNull Context ctx, @Nullable int[] values) {
+        divide(values, snapshot(ctx).mDensity);
+    }
+
+    /*** 批量将 px 转换为 dp(原地修改) */
+    public static void px2dp(@NonNull Context ctx, @Nullable float[] values) {
+        divide(values, snapshot(ctx).mDensity);
+    }
+
+    /*** 批量将 sp 转换为 px(原地修改) */
+    public static void sp2px(@NonNull Context ctx, @Nullable int[] values) {
+        multiply(values, snapshot(ctx).mScaledDensity);
+    }
+
+    /*** 批量将 sp 转换为 px(原地修改) */
+    public static void sp2px(@NonNull Context ctx, @Nullable float[] values) {
+        multiply(values, snapshot(ctx).mScaledDensity);
+    }
+
+    /*** 批量将 px 转换为 sp(原地修改) */
+    public static void px2sp(@NonNull Context ctx, @Nullable int[] values) {
+        divide(values, snapshot(ctx).mScaledDensity);
+    }
+
+    /*** 批量将 px 转换为 sp(原地修改) */
+    public static void px2sp(@NonNull Context ctx, @Nullable float[] values) {
+        divide(values, snapshot(ctx).mScaledDensity);
+    }
+
+    // <<< Bulk
+
+    private static void multiply(@Nullable int[] values, float scale) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (int) (values[i] * scale + 0.5f);
+        }
+    }
+
+    private static void multiply(@Nullable float[] values, float scale) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (int) (values[i] * scale + 0.5f);
+        }
+    }
+
+    private static void divide(@Nullable int[] values, float scale) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (int) (values[i] / scale + 0.5f);
+        }
+    }
+
+    private static void divide(@Nullable float[] values, float scale) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (int) (values[i] / scale + 0.5f);
+        }
+    }
+
+    private static @NonNull Snapshot snapshot(@NonNull Context ctx) {
+        final Resources resources = ctx.getResources();
+        Snapshot snapshot = sSnapshot;
+        if (snapshot != null && snapshot.mResources == resources) {
+            return snapshot;
+        }
+
+        // 仅缓存 Application 的 Resources, 其他 Resources 的配置可能被单独覆盖
+        Context appContext = ctx.getApplicationContext();
+        if (appContext == null || appContext.getResources() != resources) {
+            return new Snapshot(resources, false);
+        }
+
+        // 无法监听配置变化时不缓存
+        boolean cacheable = registerCallbacks(ctx);
+
+        int generation = sGeneration;
+        snapshot = new Snapshot(resources, cacheable);
+        if (cacheable && generation == sGeneration) {
+            sSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    private static synchronized boolean registerCallbacks(@NonNull Context ctx) {
+        if (sCallbacksRegistered) {
+            return true;
+        }
+
+        Context appContext = ctx.getApplicationContext();
+        if (appContext == null) {
+            return false;
+        }
+
+        appContext.registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                invalidate();
+            }
+
+            @Override
+            public void onLowMemory() {
+                // DO NOTHING
+            }
+        });
+        sCallbacksRegistered = true;
+        return true;
+    }
 }
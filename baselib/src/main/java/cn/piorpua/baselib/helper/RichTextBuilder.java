@@ -0,0 +1,157 @@
+package cn.piorpua.baselib.helper;
+
+import android.graphics.Typeface;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Html;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.text.style.AbsoluteSizeSpan;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StyleSpan;
+import android.text.style.UnderlineSpan;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 富文本构造器</p>
+ *
+ * 直接生成 {@link SpannableStringBuilder}, 替代 拼接 Html 标签 + {@link Html#fromHtml(String)} 的方式。
+ * 样式方法作用于最近一次 {@link RichTextBuilder#append(CharSequence)} 的文字; 构造器对象可复用。
+ *
+ * 示例
+ * <pre>
+ *     CharSequence text = RichTextBuilder.obtain()
+ *             .append(name).color(nameColor).bold()
+ *             .append(" 关注了你")
+ *             .append(action).underline()
+ *             .build();
+ * </pre>
+ */
+public final class RichTextBuilder {
+
+    /*** 对象池最大容量 */
+    private static final int MAX_POOL_SIZE = 8;
+
+    private static final Object sPoolLock = new Object();
+    private static @Nullable RichTextBuilder sPool;
+    private static int sPoolSize;
+
+    /*** 从对象池获取构造器 */
+    public static @NonNull RichTextBuilder obtain() {
+        synchronized (sPoolLock) {
+            RichTextBuilder builder = sPool;
+            if (builder != null) {
+                sPool = builder.mNext;
+                builder.mNext = null;
+                --sPoolSize;
+                builder.mRecycled = false;
+                return builder;
+            }
+        }
+        return new RichTextBuilder();
+    }
+
+    private @Nullable RichTextBuilder mNext;
+    private boolean mRecycled;
+
+    private @Nullable SpannableStringBuilder mText;
+
+    /*** 最近一次添加文字的范围 [mSegmentStart, mSegmentEnd) */
+    private int mSegmentStart;
+    private int mSegmentEnd;
+
+    private RichTextBuilder() {}
+
+    /*** 添加文字, 之后的样式方法作用于该段文字 */
+    public @NonNull RichTextBuilder append(@Nullable CharSequence text) {
+        SpannableStringBuilder builder = text();
+        mSegmentStart = builder.length();
+        if (!TextUtils.isEmpty(text)) {
+            builder.append(text);
+        }
+        mSegmentEnd = builder.length();
+        return this;
+    }
+
+    /*** 文字颜色 */
+    public @NonNull RichTextBuilder color(@ColorInt int color) {
+        return span(new ForegroundColorSpan(color));
+    }
+
+    /*** 文字颜色({@link UserInterfaceHelper#parseColor(String, int)}), 格式错误时忽略 */
+    public @NonNull RichTextBuilder color(@Nullable String color) {
+        long value = UserInterfaceHelper.parseColorCached(color);
+        if (value < 0L) {
+            return this;
+        }
+        return color((int) value);
+    }
+
+    /*** 下划线 */
+    public @NonNull RichTextBuilder underline() {
+        return span(new UnderlineSpan());
+    }
+
+    /*** 粗体 */
+    public @NonNull RichTextBuilder bold() {
+        return span(new StyleSpan(Typeface.BOLD));
+    }
+
+    /*** 字体大小(px) */
+    public @NonNull RichTextBuilder size(int px) {
+        return span(new AbsoluteSizeSpan(px));
+    }
+
+    /*** 为最近一次添加的文字设置任意 span */
+    public @NonNull RichTextBuilder span(@NonNull Object span) {
+        if (mText == null || mSegmentStart >= mSegmentEnd) {
+            return this;
+        }
+        mText.setSpan(span, mSegmentStart, mSegmentEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        return this;
+    }
+
+    /*** 生成富文本, 并回收该构造器, 之后不可再使用 */
+    public @NonNull SpannableStringBuilder build() {
+        SpannableStringBuilder text = text();
+        mText = null;
+        recycle();
+        return text;
+    }
+
+    /*** 放弃构造, 回收该构造器 */
+    public void recycle() {
+        if (mRecycled) {
+            return;
+        }
+
+        mRecycled = true;
+        mText = null;
+        mSegmentStart = 0;
+        mSegmentEnd = 0;
+
+        synchronized (sPoolLock) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                mNext = sPool;
+                sPool = this;
+                ++sPoolSize;
+            }
+        }
+    }
+
+    private @NonNull SpannableStringBuilder text() {
+        if (mRecycled) {
+            throw new IllegalStateException("RichTextBuilder already recycled.");
+        }
+
+        if (mText == null) {
+            mText = new SpannableStringBuilder();
+        }
+        return mText;
+    }
+}
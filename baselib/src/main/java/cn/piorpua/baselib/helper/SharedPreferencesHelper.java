@@ -5,6 +5,10 @@ import android.content.SharedPreferences;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
+import cn.piorpua.baselib.metrics.Histogram;
+import cn.piorpua.baselib.metrics.MetricsRegistry;
+import cn.piorpua.baselib.metrics.StripedCounter;
+
 /**
  * Author: piorpua<br>
  * Mail: helloworld.hnu@gmail.com<br>
@@ -14,6 +18,13 @@ import android.text.TextUtils;
  */
 public class SharedPreferencesHelper {
 
+    private static final StripedCounter sReadCounter =
+            MetricsRegistry.getInstance().counter("prefs.read");
+    private static final StripedCounter sWriteCounter =
+            MetricsRegistry.getInstance().counter("prefs.write");
+    private static final Histogram sCommitNanos =
+            MetricsRegistry.getInstance().histogram("prefs.commit.nanos");
+
     private final @NonNull SharedPreferences mPreferences;
 
     public SharedPreferencesHelper(Context ctx, String name) {
@@ -36,6 +47,7 @@ public class SharedPreferencesHelper {
         return getString(key, "");
     }
     public String getString(String key, String defValue) {
+        sReadCounter.increment();
         return mPreferences.getString(key, defValue);
     }
 
@@ -49,6 +61,7 @@ public class SharedPreferencesHelper {
         return getInt(key, 0);
     }
     public int getInt(String key, int defValue) {
+        sReadCounter.increment();
         return mPreferences.getInt(key, defValue);
     }
 
@@ -62,6 +75,7 @@ public class SharedPreferencesHelper {
         return getLong(key, 0L);
     }
     public long getLong(String key, long defValue) {
+        sReadCounter.increment();
         return mPreferences.getLong(key, defValue);
     }
 
@@ -75,6 +89,7 @@ public class SharedPreferencesHelper {
         return getFloat(key, 0.0f);
     }
     public float getFloat(String key, float defValue) {
+        sReadCounter.increment();
         return mPreferences.getFloat(key, defValue);
     }
 
@@ -88,6 +103,7 @@ public class SharedPreferencesHelper {
         return getBoolean(key, false);
     }
     public boolean getBoolean(String key, boolean defValue) {
+        sReadCounter.increment();
         return mPreferences.getBoolean(key, defValue);
     }
 
@@ -98,9 +114,13 @@ public class SharedPreferencesHelper {
     }
 
     private boolean safeCommit(SharedPreferences.Editor editor) {
+        sWriteCounter.increment();
+        final long start = System.nanoTime();
         try {
             return editor.commit();
         } catch (StringIndexOutOfBoundsException e) {
+        } finally {
+            sCommitNanos.recordSince(start);
         }
         return false;
     }
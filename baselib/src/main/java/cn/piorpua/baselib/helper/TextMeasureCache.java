@@ -0,0 +1,361 @@
+package cn.piorpua.baselib.helper;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import cn.piorpua.baselib.component.MemoryPressureDispatcher;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 文字测量缓存</p>
+ *
+ * 1. 文字宽度: 以 画笔配置(字体, 字号, 缩放, 倾斜, 标志位, 语言区域, 字间距, 字体特性) + 文字 为键的有界 LRU 缓存;<br>
+ * 2. {@link Paint.FontMetrics}: 以 画笔配置 为键缓存, 通过 {@link TextMeasureCache#getFontMetrics(Paint, Paint.FontMetrics)}
+ *    复制到调用方提供的对象中, 不分配内存;<br>
+ * 3. 命中时不分配内存, 提供命中率统计;<br>
+ * 4. 订阅 {@link MemoryPressureDispatcher}, 内存紧张时按比例释放;<br>
+ *
+ * 线程安全。
+ */
+public final class TextMeasureCache implements MemoryPressureDispatcher.Trimmable {
+
+    /*** 画笔配置 */
+    private static class PaintKey {
+
+        @Nullable Typeface mTypeface;
+        float mTextSize;
+        float mTextScaleX;
+        float mTextSkewX;
+        int mFlags;
+        /*** API 17+ */
+        @Nullable Locale mTextLocale;
+        /*** API 21+ */
+        float mLetterSpacing;
+        /*** API 21+ */
+        @Nullable String mFontFeatureSettings;
+
+        void set(@NonNull Paint paint) {
+            mTypeface = paint.getTypeface();
+            mTextSize = paint.getTextSize();
+            mTextScaleX = paint.getTextScaleX();
+            mTextSkewX = paint.getTextSkewX();
+            mFlags = paint.getFlags();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                mTextLocale = paint.getTextLocale();
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                mLetterSpacing = paint.getLetterSpacing();
+                mFontFeatureSettings = paint.getFontFeatureSettings();
+            }
+        }
+
+        /*** 释放对外部对象的引用 */
+        void clear() {
+            mTypeface = null;
+            mTextLocale = null;
+            mFontFeatureSettings = null;
+        }
+
+        boolean paintEquals(@NonNull PaintKey key) {
+            return mTypeface == key.mTypeface &&
+                    mTextSize == key.mTextSize &&
+                    mTextScaleX == key.mTextScaleX &&
+                    mTextSkewX == key.mTextSkewX &&
+                    mFlags == key.mFlags &&
+                    mLetterSpacing == key.mLetterSpacing &&
+                    (mTextLocale == null ? key.mTextLocale == null : mTextLocale.equals(key.mTextLocale)) &&
+                    TextUtils.equals(mFontFeatureSettings, key.mFontFeatureSettings);
+        }
+
+        int paintHashCode() {
+            int result = mTypeface == null ? 0 : System.identityHashCode(mTypeface);
+            result = 31 * result + Float.floatToIntBits(mTextSize);
+            result = 31 * result + Float.floatToIntBits(mTextScaleX);
+            result = 31 * result + Float.floatToIntBits(mTextSkewX);
+            result = 31 * result + mFlags;
+            result = 31 * result + (mTextLocale == null ? 0 : mTextLocale.hashCode());
+            result = 31 * result + Float.floatToIntBits(mLetterSpacing);
+            result = 31 * result + (mFontFeatureSettings == null ? 0 : mFontFeatureSettings.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o != null && o.getClass() == PaintKey.class &&
+                    paintEquals((PaintKey) o));
+        }
+
+        @Override
+        public int hashCode() {
+            return paintHashCode();
+        }
+    }
+
+    /*** 画笔配置 + 文字 */
+    private static final class TextKey extends PaintKey {
+
+        @Nullable String mText;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TextKey)) {
+                return false;
+            }
+            TextKey key = (TextKey) o;
+            return paintEquals(key) && TextUtils.equals(mText, key.mText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * paintHashCode() + (mText == null ? 0 : mText.hashCode());
+        }
+    }
+
+    /*** 默认文字宽度缓存数量 */
+    private static final int DEFAULT_MAX_TEXT_SIZE = 512;
+    /*** 默认 FontMetrics 缓存数量 */
+    private static final int DEFAULT_MAX_METRICS_SIZE = 32;
+
+    private static volatile TextMeasureCache sIns;
+
+    public static @NonNull TextMeasureCache getInstance() {
+        if (sIns == null) {
+            synchronized (TextMeasureCache.class) {
+                if (sIns == null) {
+                    TextMeasureCache cache = new TextMeasureCache(
+                            DEFAULT_MAX_TEXT_SIZE, DEFAULT_MAX_METRICS_SIZE);
+                    MemoryPressureDispatcher.getInstance().register(cache);
+                    sIns = cache;
+                }
+            }
+        }
+        return sIns;
+    }
+
+    private final int mMaxTextSize;
+    private final int mMaxMetricsSize;
+
+    private final @NonNull LinkedHashMap<TextKey, Float> mWidths;
+    private final @NonNull LinkedHashMap<PaintKey, Paint.FontMetrics> mMetrics;
+
+    /*** 查找用的键, 仅在持有锁时使用 */
+    private final @NonNull TextKey mProbeTextKey = new TextKey();
+    private final @NonNull PaintKey mProbePaintKey = new PaintKey();
+
+    private long mWidthHitCount;
+    private long mWidthMissCount;
+    private long mMetricsHitCount;
+    private long mMetricsMissCount;
+
+    public TextMeasureCache(int maxTextSize, int maxMetricsSize) {
+        if (maxTextSize <= 0 || maxMetricsSize <= 0) {
+            throw new IllegalArgumentException("Illegal TextMeasureCache size.");
+        }
+
+        mMaxTextSize = maxTextSize;
+        mMaxMetricsSize = maxMetricsSize;
+
+        mWidths = new LinkedHashMap<TextKey, Float>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TextKey, Float> eldest) {
+                return size() > mMaxTextSize;
+            }
+        };
+        mMetrics = new LinkedHashMap<PaintKey, Paint.FontMetrics>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PaintKey, Paint.FontMetrics> eldest) {
+                return size() > mMaxMetricsSize;
+            }
+        };
+    }
+
+    /*** 计算文字宽度({@link Paint#measureText(String)}) */
+    public float measureText(@Nullable Paint paint, @Nullable String text) {
+        if (paint == null || TextUtils.isEmpty(text)) {
+            return 0.0f;
+        }
+
+        synchronized (this) {
+            mProbeTextKey.set(paint);
+            mProbeTextKey.mText = text;
+            Float width = mWidths.get(mProbeTextKey);
+            mProbeTextKey.mText = null;
+            mProbeTextKey.clear();
+            if (width != null) {
+                ++mWidthHitCount;
+                return width;
+            }
+            ++mWidthMissCount;
+        }
+
+        float width = paint.measureText(text);
+
+        TextKey key = new TextKey();
+        key.set(paint);
+        key.mText = text;
+        synchronized (this) {
+            mWidths.put(key, width);
+        }
+        return width;
+    }
+
+    /*** 是否已缓存文字宽度 */
+    public synchronized boolean containsText(@NonNull Paint paint, @NonNull String text) {
+        mProbeTextKey.set(paint);
+        mProbeTextKey.mText = text;
+        boolean contains = mWidths.containsKey(mProbeTextKey);
+        mProbeTextKey.mText = null;
+        mProbeTextKey.clear();
+        return contains;
+    }
+
+    /**
+     * 获取 {@link Paint.FontMetrics}, 复制到 outMetrics 中(不分配内存)
+     * @return 推荐行距({@link Paint#getFontMetrics(Paint.FontMetrics)})
+     */
+    public float getFontMetrics(@NonNull Paint paint, @NonNull Paint.FontMetrics outMetrics) {
+        synchronized (this) {
+            Paint.FontMetrics metrics = getCachedFontMetrics(paint);
+            if (metrics != null) {
+                copy(metrics, outMetrics);
+                return metrics.descent - metrics.ascent + metrics.leading;
+            }
+        }
+
+        Paint.FontMetrics metrics = putFontMetrics(paint);
+        copy(metrics, outMetrics);
+        return metrics.descent - metrics.ascent + metrics.leading;
+    }
+
+    /*** 计算文字高度: descent - ascent + leading */
+    public float getFontHeight(@NonNull Paint paint) {
+        synchronized (this) {
+            Paint.FontMetrics metrics = getCachedFontMetrics(paint);
+            if (metrics != null) {
+                return metrics.descent - metrics.ascent + metrics.leading;
+            }
+        }
+
+        Paint.FontMetrics metrics = putFontMetrics(paint);
+        return metrics.descent - metrics.ascent + metrics.leading;
+    }
+
+    /*** 清空缓存 */
+    public synchronized void clear() {
+        mWidths.clear();
+        mMetrics.clear();
+    }
+
+    /*** 清空统计 */
+    public synchronized void resetStats() {
+        mWidthHitCount = 0L;
+        mWidthMissCount = 0L;
+        mMetricsHitCount = 0L;
+        mMetricsMissCount = 0L;
+    }
+
+    /*** 文字宽度命中次数 */
+    public synchronized long getWidthHitCount() {
+        return mWidthHitCount;
+    }
+
+    /*** 文字宽度未命中次数 */
+    public synchronized long getWidthMissCount() {
+        return mWidthMissCount;
+    }
+
+    /*** FontMetrics 命中次数 */
+    public synchronized long getMetricsHitCount() {
+        return mMetricsHitCount;
+    }
+
+    /*** FontMetrics 未命中次数 */
+    public synchronized long getMetricsMissCount() {
+        return mMetricsMissCount;
+    }
+
+    /*** 总命中率, [0, 1] */
+    public synchronized float getHitRate() {
+        long hit = mWidthHitCount + mMetricsHitCount;
+        long total = hit + mWidthMissCount + mMetricsMissCount;
+        return total == 0L ? 0.0f : (float) hit / total;
+    }
+
+    /*** 当前缓存的文字宽度数量 */
+    public synchronized int size() {
+        return mWidths.size();
+    }
+
+    @Override
+    public void onTrimMemory(float fraction, int level) {
+        synchronized (this) {
+            if (fraction >= 1.0f) {
+                clear();
+                return;
+            }
+
+            int remove = (int) (mWidths.size() * fraction);
+            Iterator<TextKey> iterator = mWidths.keySet().iterator();
+            while (remove > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                --remove;
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextMeasureCache{size=" + mWidths.size() + "/" + mMaxTextSize +
+                ", metrics=" + mMetrics.size() + "/" + mMaxMetricsSize +
+                ", hitRate=" + getHitRate() + "}";
+    }
+
+    /*** 需持有锁 */
+    private @Nullable Paint.FontMetrics getCachedFontMetrics(@NonNull Paint paint) {
+        mProbePaintKey.set(paint);
+        Paint.FontMetrics metrics = mMetrics.get(mProbePaintKey);
+        mProbePaintKey.clear();
+        if (metrics != null) {
+            ++mMetricsHitCount;
+        } else {
+            ++mMetricsMissCount;
+        }
+        return metrics;
+    }
+
+    private @NonNull Paint.FontMetrics putFontMetrics(@NonNull Paint paint) {
+        Paint.FontMetrics metrics = new Paint.FontMetrics();
+        paint.getFontMetrics(metrics);
+
+        PaintKey key = new PaintKey();
+        key.set(paint);
+        synchronized (this) {
+            mMetrics.put(key, metrics);
+        }
+        return metrics;
+    }
+
+    private static void copy(@NonNull Paint.FontMetrics src, @NonNull Paint.FontMetrics dst) {
+        dst.top = src.top;
+        dst.ascent = src.ascent;
+        dst.descent = src.descent;
+        dst.bottom = src.bottom;
+        dst.leading = src.leading;
+    }
+}
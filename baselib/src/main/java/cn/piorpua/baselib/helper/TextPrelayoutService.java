@@ -0,0 +1,307 @@
+package cn.piorpua.baselib.helper;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Handler;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import cn.piorpua.baselib.component.LooperPool;
+import cn.piorpua.baselib.component.MemoryPressureDispatcher;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 文字后台预排版</p>
+ *
+ * 1. 在后台线程提前计算文字宽度与 {@link Paint.FontMetrics}, 结果写入 {@link TextMeasureCache},
+ *    主线程的 {@link UserInterfaceHelper#measureTextWidth(Paint, String)} 等测量方法将直接命中;<br>
+ * 2. 在后台线程提前计算指定宽度下的换行({@link StaticLayout}), 主线程的
+ *    {@link UserInterfaceHelper#obtainTextLayout(Paint, String, int)} /
+ *    {@link UserInterfaceHelper#measureTextHeight(Paint, String, int)} 优先使用, 未命中时在主线程排版并缓存;<br>
+ * 3. 提交与缓存时复制画笔, 后台线程与缓存的排版不会引用调用方的画笔;<br>
+ * 4. 后台线程为 {@link LooperPool} 的租约, 首次提交时获取, 内存紧张(完全释放)时归还;<br>
+ *
+ * 适用于 RecyclerView 预取等场景, 在 minSdk 14 上提供类似 PrecomputedText 的能力。
+ */
+public final class TextPrelayoutService implements MemoryPressureDispatcher.Trimmable {
+
+    /*** 排版缓存键 */
+    private static final class LayoutKey {
+
+        @Nullable Typeface mTypeface;
+        float mTextSize;
+        float mTextScaleX;
+        float mTextSkewX;
+        int mFlags;
+        /*** API 17+ */
+        @Nullable Locale mTextLocale;
+        /*** API 21+ */
+        float mLetterSpacing;
+        /*** API 21+ */
+        @Nullable String mFontFeatureSettings;
+        @Nullable String mText;
+        int mWidth;
+
+        void set(@NonNull Paint paint, @Nullable String text, int width) {
+            mTypeface = paint.getTypeface();
+            mTextSize = paint.getTextSize();
+            mTextScaleX = paint.getTextScaleX();
+            mTextSkewX = paint.getTextSkewX();
+            mFlags = paint.getFlags();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                mTextLocale = paint.getTextLocale();
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                mLetterSpacing = paint.getLetterSpacing();
+                mFontFeatureSettings = paint.getFontFeatureSettings();
+            }
+            mText = text;
+            mWidth = width;
+        }
+
+        /*** 释放对外部对象的引用 */
+        void clear() {
+            mTypeface = null;
+            mTextLocale = null;
+            mFontFeatureSettings = null;
+            mText = null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LayoutKey)) {
+                return false;
+            }
+            LayoutKey key = (LayoutKey) o;
+            return mTypeface == key.mTypeface &&
+                    mTextSize == key.mTextSize &&
+                    mTextScaleX == key.mTextScaleX &&
+                    mTextSkewX == key.mTextSkewX &&
+                    mFlags == key.mFlags &&
+                    mLetterSpacing == key.mLetterSpacing &&
+                    (mTextLocale == null ? key.mTextLocale == null : mTextLocale.equals(key.mTextLocale)) &&
+                    TextUtils.equals(mFontFeatureSettings, key.mFontFeatureSettings) &&
+                    mWidth == key.mWidth &&
+                    TextUtils.equals(mText, key.mText);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mTypeface == null ? 0 : System.identityHashCode(mTypeface);
+            result = 31 * result + Float.floatToIntBits(mTextSize);
+            result = 31 * result + Float.floatToIntBits(mTextScaleX);
+            result = 31 * result + Float.floatToIntBits(mTextSkewX);
+            result = 31 * result + mFlags;
+            result = 31 * result + (mTextLocale == null ? 0 : mTextLocale.hashCode());
+            result = 31 * result + Float.floatToIntBits(mLetterSpacing);
+            result = 31 * result + (mFontFeatureSettings == null ? 0 : mFontFeatureSettings.hashCode());
+            result = 31 * result + mWidth;
+            result = 31 * result + (mText == null ? 0 : mText.hashCode());
+            return result;
+        }
+    }
+
+    /*** 默认排版缓存数量 */
+    private static final int DEFAULT_MAX_LAYOUT_SIZE = 128;
+
+    private static volatile TextPrelayoutService sIns;
+
+    public static @NonNull TextPrelayoutService getInstance() {
+        if (sIns == null) {
+            synchronized (TextPrelayoutService.class) {
+                if (sIns == null) {
+                    TextPrelayoutService service = new TextPrelayoutService();
+                    MemoryPressureDispatcher.getInstance().register(service);
+                    sIns = service;
+                }
+            }
+        }
+        return sIns;
+    }
+
+    private final @NonNull LinkedHashMap<LayoutKey, StaticLayout> mLayouts =
+            new LinkedHashMap<LayoutKey, StaticLayout>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LayoutKey, StaticLayout> eldest) {
+            return size() > DEFAULT_MAX_LAYOUT_SIZE;
+        }
+    };
+
+    /*** 查找用的键, 仅在持有锁时使用 */
+    private final @NonNull LayoutKey mProbeKey = new LayoutKey();
+
+    private @Nullable LooperPool.Lease mLease;
+
+    private TextPrelayoutService() {}
+
+    /*** 预先计算文字宽度与 FontMetrics */
+    @MainThread
+    public void prelayout(@NonNull Paint paint, @Nullable String text) {
+        if (TextUtils.isEmpty(text)) {
+            return;
+        }
+
+        List<String> texts = new ArrayList<String>(1);
+        texts.add(text);
+        prelayout(paint, texts);
+    }
+
+    /*** 批量预先计算文字宽度与 FontMetrics */
+    @MainThread
+    public void prelayout(@NonNull Paint paint, @NonNull Collection<String> texts) {
+        if (texts.isEmpty()) {
+            return;
+        }
+
+        final TextPaint copy = new TextPaint(paint);
+        final List<String> list = new ArrayList<String>(texts);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                TextMeasureCache cache = TextMeasureCache.getInstance();
+                cache.getFontHeight(copy);
+                for (String text : list) {
+                    if (!TextUtils.isEmpty(text) && !cache.containsText(copy, text)) {
+                        cache.measureText(copy, text);
+                    }
+                }
+            }
+        });
+    }
+
+    /*** 预先计算文字宽度, FontMetrics 以及指定宽度下的换行 */
+    @MainThread
+    public void prelayout(@NonNull Paint paint, @Nullable final String text, final int width) {
+        if (TextUtils.isEmpty(text) || width <= 0) {
+            return;
+        }
+
+        final TextPaint copy = new TextPaint(paint);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                TextMeasureCache cache = TextMeasureCache.getInstance();
+                cache.getFontHeight(copy);
+                cache.measureText(copy, text);
+
+                if (getLayout(copy, text, width) == null) {
+                    putLayout(copy, text, width, new StaticLayout(text, copy, width,
+                            Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, true));
+                }
+            }
+        });
+    }
+
+    /***
+     * 获取指定宽度下的换行结果, 优先使用已预排版的结果, 未命中时在当前线程排版并缓存
+     */
+    @MainThread
+    public @NonNull StaticLayout obtainLayout(@NonNull Paint paint, @NonNull String text, int width) {
+        StaticLayout layout = getLayout(paint, text, width);
+        if (layout != null) {
+            return layout;
+        }
+
+        // 排版结果引用画笔, 缓存时使用副本
+        TextPaint copy = new TextPaint(paint);
+        layout = new StaticLayout(text, copy, Math.max(0, width),
+                Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, true);
+        putLayout(copy, text, width, layout);
+        return layout;
+    }
+
+    /***
+     * 获取已预排版的结果
+     * @return NULL if not laid out yet
+     */
+    public @Nullable StaticLayout getLayout(@NonNull Paint paint, @Nullable String text, int width) {
+        if (TextUtils.isEmpty(text)) {
+            return null;
+        }
+
+        synchronized (mLayouts) {
+            mProbeKey.set(paint, text, width);
+            StaticLayout layout = mLayouts.get(mProbeKey);
+            mProbeKey.clear();
+            return layout;
+        }
+    }
+
+    /*** 清空排版缓存 */
+    public void clear() {
+        synchronized (mLayouts) {
+            mLayouts.clear();
+        }
+    }
+
+    @Override
+    public void onTrimMemory(float fraction, int level) {
+        if (fraction >= 1.0f) {
+            releaseWorker();
+        }
+
+        synchronized (mLayouts) {
+            int remove = fraction >= 1.0f ? mLayouts.size() : (int) (mLayouts.size() * fraction);
+            Iterator<LayoutKey> iterator = mLayouts.keySet().iterator();
+            while (remove > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                --remove;
+            }
+        }
+    }
+
+    private void putLayout(@NonNull Paint paint, @NonNull String text,
+                           int width, @NonNull StaticLayout layout) {
+
+        LayoutKey key = new LayoutKey();
+        key.set(paint, text, width);
+        synchronized (mLayouts) {
+            mLayouts.put(key, layout);
+        }
+    }
+
+    private void post(@NonNull Runnable runnable) {
+        Handler worker;
+        synchronized (this) {
+            if (mLease == null) {
+                mLease = LooperPool.getInstance().acquire();
+            }
+            worker = mLease.getHandler();
+        }
+        worker.post(runnable);
+    }
+
+    /*** 归还后台线程租约, 已提交的任务仍会执行, 下次提交时重新获取 */
+    private void releaseWorker() {
+        LooperPool.Lease lease;
+        synchronized (this) {
+            lease = mLease;
+            mLease = null;
+        }
+        if (lease != null) {
+            lease.release();
+        }
+    }
+}
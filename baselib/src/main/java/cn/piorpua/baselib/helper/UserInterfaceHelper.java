@@ -5,8 +5,11 @@ import android.graphics.Paint;
 import android.graphics.drawable.Drawable;
 import android.os.Looper;
 import android.support.annotation.ColorInt;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.Editable;
+import android.text.StaticLayout;
 import android.text.TextUtils;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,6 +17,8 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.TextView;
 
+import java.util.List;
+
 /**
  * Author: piorpua<helloworld.hnu@gmail.com>
  * Date Created: 16/12/15
@@ -21,10 +26,18 @@ import android.widget.TextView;
  */
 public final class UserInterfaceHelper {
 
+    /*** {@link UserInterfaceHelper#parseColor(String, int)} 缓存大小(2 的幂) */
+    private static final int COLOR_CACHE_SIZE = 64;
+    private static final int COLOR_CACHE_MASK = COLOR_CACHE_SIZE - 1;
+
+    private static final String[] COLOR_CACHE_KEYS = new String[COLOR_CACHE_SIZE];
+    private static final int[] COLOR_CACHE_VALUES = new int[COLOR_CACHE_SIZE];
+
     private UserInterfaceHelper() {}
 
     /***
-     * {@link Looper#myLooper()}
+     * {@link Looper#myLooper()}<br>
+     * 需要后台 Looper 时, 优先使用 {@link cn.piorpua.baselib.component.LooperPool} 而非自行创建 HandlerThread
      * @return NULL if Looper fail to prepare
      */
     public static @Nullable Looper prepareLooper() {
@@ -62,6 +75,7 @@ public final class UserInterfaceHelper {
 
     /***
      * {@link View#setVisibility(int)}
+     * 同时设置多个 View 时可使用 {@link VisibilityTransaction}
      * @return true if visibility of the view changed, otherwise false
      */
     public static boolean setVisibility(@Nullable View view, int visibility) {
@@ -109,34 +123,85 @@ public final class UserInterfaceHelper {
         view.setCompoundDrawables(left, top, right, bottom);
     }
 
-    /*** Recursive to {@link View#setSaveEnabled(boolean)} */
-    public static void setSaveEnabled(@Nullable View rootView, boolean enabled) {
-        if (rootView == null) {
-            return;
-        }
+    /*** Recursive to {@link View#setSaveEnabled(boolean)}, 仅作用于非 {@link ViewGroup} 的 View */
+    public static void setSaveEnabled(@Nullable View rootView, final boolean enabled) {
+        ViewTreeWalker.walk(rootView, new ViewTreeWalker.Visitor() {
+            @Override
+            public int onPreVisit(@NonNull View view) {
+                if (!(view instanceof ViewGroup)) {
+                    view.setSaveEnabled(enabled);
+                }
+                return ViewTreeWalker.CONTINUE;
+            }
+        });
+    }
+
+    /*** Recursive to {@link View#setEnabled(boolean)}, 包含 rootView 自身 */
+    public static void setEnabled(@Nullable View rootView, final boolean enabled) {
+        ViewTreeWalker.walk(rootView, new ViewTreeWalker.Visitor() {
+            @Override
+            public int onPreVisit(@NonNull View view) {
+                if (view.isEnabled() != enabled) {
+                    view.setEnabled(enabled);
+                }
+                return ViewTreeWalker.CONTINUE;
+            }
+        });
+    }
 
-        if (rootView instanceof ViewGroup) {
-            ViewGroup viewGroup = (ViewGroup) rootView;
-            int childCount = viewGroup.getChildCount();
-            if (childCount <= 0) {
-                return;
+    /***
+     * 对 rootView 树中(包含 rootView 自身)满足条件的 View 调用 {@link UserInterfaceHelper#setVisibility(View, int)}
+     * @return 可见性实际发生变化的 View 数量
+     */
+    public static int setVisibility(@Nullable View rootView,
+                                    @NonNull final ViewTreeWalker.Predicate predicate,
+                                    final int visibility) {
+
+        final int[] changed = new int[1];
+        ViewTreeWalker.walk(rootView, new ViewTreeWalker.Visitor() {
+            @Override
+            public int onPreVisit(@NonNull View view) {
+                if (predicate.apply(view) && setVisibility(view, visibility)) {
+                    ++changed[0];
+                }
+                return ViewTreeWalker.CONTINUE;
             }
+        });
+        return changed[0];
+    }
 
-            for (int i = 0; i < childCount; ++i) {
-                View view = viewGroup.getChildAt(i);
-                if (view == null) {
-                    continue;
+    /*** 查找 rootView 树中(包含 rootView 自身)满足条件的所有 View, 按先序添加到 outViews */
+    public static void findViews(@Nullable View rootView,
+                                 @NonNull final ViewTreeWalker.Predicate predicate,
+                                 @NonNull final List<View> outViews) {
+
+        ViewTreeWalker.walk(rootView, new ViewTreeWalker.Visitor() {
+            @Override
+            public int onPreVisit(@NonNull View view) {
+                if (predicate.apply(view)) {
+                    outViews.add(view);
                 }
+                return ViewTreeWalker.CONTINUE;
+            }
+        });
+    }
 
-                if (view instanceof ViewGroup) {
-                    setSaveEnabled(view, enabled);
-                } else {
-                    view.setSaveEnabled(enabled);
+    /*** 查找 rootView 树中(包含 rootView 自身)先序第一个满足条件的 View */
+    public static @Nullable View findFirstView(@Nullable View rootView,
+                                               @NonNull final ViewTreeWalker.Predicate predicate) {
+
+        final View[] result = new View[1];
+        ViewTreeWalker.walk(rootView, new ViewTreeWalker.Visitor() {
+            @Override
+            public int onPreVisit(@NonNull View view) {
+                if (predicate.apply(view)) {
+                    result[0] = view;
+                    return ViewTreeWalker.STOP;
                 }
+                return ViewTreeWalker.CONTINUE;
             }
-        } else {
-            rootView.setSaveEnabled(enabled);
-        }
+        });
+        return result[0];
     }
 
     /***
@@ -199,7 +264,11 @@ public final class UserInterfaceHelper {
         return false;
     }
 
-    /*** 给指定字符串包装上 Html 字体颜色 标签 */
+    /**
+     * 给指定字符串包装上 Html 字体颜色 标签
+     * @deprecated 使用 {@link RichTextBuilder#color(String)} 直接生成富文本, 省去 Html 解析
+     */
+    @Deprecated
     public static @Nullable String wrapperHtmlFontColorTag(
             @Nullable String color, @Nullable String content) {
 
@@ -213,50 +282,181 @@ public final class UserInterfaceHelper {
         return strBuilder.toString();
     }
 
-    /*** 给指定字符串包装上 Html 下划线 标签 */
+    /**
+     * 给指定字符串包装上 Html 下划线 标签
+     * @deprecated 使用 {@link RichTextBuilder#underline()} 直接生成富文本, 省去 Html 解析
+     */
+    @Deprecated
     public static @Nullable String wrapperHtmlUnderlineTag(@Nullable String content) {
         return wrapperHtmlTag("u", content);
     }
 
+    /***
+     * 解析颜色, 支持 #RGB, #ARGB, #RRGGBB, #AARRGGBB, 不分配内存。
+     * 最近解析过的字符串缓存在一个小的直接映射表中。
+     * @return defColor if strColor is malformed
+     */
     public static @ColorInt int parseColor(@Nullable String strColor, @ColorInt int defColor) {
-        if (TextUtils.isEmpty(strColor)) {
-            return defColor;
-        }
+        long color = parseColorCached(strColor);
+        return color < 0L ? defColor : (int) color;
+    }
 
-        if (!strColor.startsWith("#")) {
+    /***
+     * 解析 text 中 [start, end) 范围内的颜色, 支持 #RGB, #ARGB, #RRGGBB, #AARRGGBB, 不分配内存
+     * @return defColor if the range is malformed
+     */
+    public static @ColorInt int parseColor(
+            @Nullable CharSequence text, int start, int end, @ColorInt int defColor) {
+
+        if (text == null || start < 0 || end > text.length() || start >= end) {
             return defColor;
         }
 
-        int length = strColor.length();
+        long color = parseColorValue(text, start, end);
+        return color < 0L ? defColor : (int) color;
+    }
 
-        // Use a long to avoid rollovers on #ffXXXXXX
-        String subString = strColor.substring(1);
-        long color = Long.parseLong(subString, 16);
-        if (length == 7) {
-            // Set the alpha value
-            color |= 0x00000000ff000000;
-            return (int) color;
+    /***
+     * 按比例混合两个颜色(各 ARGB 分量线性插值), 不分配内存
+     * @param fraction [0, 1], 0 为 from, 1 为 to
+     */
+    public static @ColorInt int blendColor(@ColorInt int from, @ColorInt int to, float fraction) {
+        if (fraction <= 0.0f) {
+            return from;
+        }
+        if (fraction >= 1.0f) {
+            return to;
         }
 
-        return defColor;
+        float inverse = 1.0f - fraction;
+        int a = (int) (((from >>> 24) & 0xFF) * inverse + ((to >>> 24) & 0xFF) * fraction + 0.5f);
+        int r = (int) (((from >> 16) & 0xFF) * inverse + ((to >> 16) & 0xFF) * fraction + 0.5f);
+        int g = (int) (((from >> 8) & 0xFF) * inverse + ((to >> 8) & 0xFF) * fraction + 0.5f);
+        int b = (int) ((from & 0xFF) * inverse + (to & 0xFF) * fraction + 0.5f);
+        return (a << 24) | (r << 16) | (g << 8) | b;
     }
 
-    /*** 计算文字宽度 */
-    public static float measureTextWidth(@Nullable Paint paint, @Nullable String text) {
-        if (paint == null || TextUtils.isEmpty(text)) {
-            return 0.0f;
+    /***
+     * 将颜色的透明度乘以 alpha
+     * @param alpha [0, 255]
+     */
+    public static @ColorInt int multiplyAlpha(@ColorInt int color, int alpha) {
+        if (alpha >= 0xFF) {
+            return color;
         }
-        return paint.measureText(text);
+        int a = ((color >>> 24) * Math.max(0, alpha) + 127) / 255;
+        return (a << 24) | (color & 0x00FFFFFF);
+    }
+
+    /*** 计算文字宽度({@link TextMeasureCache}, 可由 {@link TextPrelayoutService} 在后台预先计算) */
+    public static float measureTextWidth(@Nullable Paint paint, @Nullable String text) {
+        return TextMeasureCache.getInstance().measureText(paint, text);
     }
 
-    /*** 计算文字高度 */
+    /*** 计算文字高度({@link TextMeasureCache}) */
     public static float measureTextHeight(@Nullable Paint paint) {
         if (paint == null) {
             return 0.0f;
         }
+        return TextMeasureCache.getInstance().getFontHeight(paint);
+    }
+
+    /***
+     * 获取指定宽度下的换行结果, 优先使用 {@link TextPrelayoutService} 在后台预排版的结果,
+     * 未命中时在当前线程排版并缓存
+     */
+    @MainThread
+    public static @NonNull StaticLayout obtainTextLayout(@NonNull Paint paint, @NonNull String text, int width) {
+        return TextPrelayoutService.getInstance().obtainLayout(paint, text, width);
+    }
+
+    /*** 计算指定宽度下换行后的文字高度, 换行结果来自 {@link UserInterfaceHelper#obtainTextLayout(Paint, String, int)} */
+    @MainThread
+    public static int measureTextHeight(@Nullable Paint paint, @Nullable String text, int width) {
+        if (paint == null || TextUtils.isEmpty(text) || width <= 0) {
+            return 0;
+        }
+        return obtainTextLayout(paint, text, width).getHeight();
+    }
+
+    /***
+     * {@link Paint#getFontMetrics(Paint.FontMetrics)}, 结果来自 {@link TextMeasureCache}, 不分配内存
+     * @return 推荐行距
+     */
+    public static float getFontMetrics(@NonNull Paint paint, @NonNull Paint.FontMetrics outMetrics) {
+        return TextMeasureCache.getInstance().getFontMetrics(paint, outMetrics);
+    }
+
+    /*** 解析颜色(带缓存), 失败时返回 -1, 成功时返回 [0, 0xFFFFFFFF] */
+    static long parseColorCached(@Nullable String strColor) {
+        if (TextUtils.isEmpty(strColor)) {
+            return -1L;
+        }
+
+        final int slot = strColor.hashCode() & COLOR_CACHE_MASK;
+        synchronized (COLOR_CACHE_KEYS) {
+            String key = COLOR_CACHE_KEYS[slot];
+            if (key == strColor || strColor.equals(key)) {
+                return COLOR_CACHE_VALUES[slot] & 0xffffffffL;
+            }
+        }
 
-        Paint.FontMetrics fontMetrics = paint.getFontMetrics();
-        return fontMetrics.descent - fontMetrics.ascent + fontMetrics.leading;
+        long color = parseColorValue(strColor, 0, strColor.length());
+        if (color < 0L) {
+            return -1L;
+        }
+
+        synchronized (COLOR_CACHE_KEYS) {
+            COLOR_CACHE_KEYS[slot] = strColor;
+            COLOR_CACHE_VALUES[slot] = (int) color;
+        }
+        return color;
+    }
+
+    /*** 解析颜色, 失败时返回 -1, 成功时返回 [0, 0xFFFFFFFF] */
+    private static long parseColorValue(@NonNull CharSequence text, int start, int end) {
+        if (text.charAt(start) != '#') {
+            return -1L;
+        }
+
+        final int length = end - start - 1;
+        if (length != 3 && length != 4 && length != 6 && length != 8) {
+            return -1L;
+        }
+
+        long value = 0L;
+        for (int i = start + 1; i < end; ++i) {
+            int digit = hexDigit(text.charAt(i));
+            if (digit < 0) {
+                return -1L;
+            }
+
+            if (length <= 4) {
+                // 单个十六进制位展开为两位: #F80 -> #FF8800
+                value = (value << 8) | (digit << 4) | digit;
+            } else {
+                value = (value << 4) | digit;
+            }
+        }
+
+        if (length == 3 || length == 6) {
+            // Set the alpha value
+            value |= 0x00000000ff000000L;
+        }
+        return value;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
     }
 
     /*** 给指定字符串包装上 Html 指定标签 */
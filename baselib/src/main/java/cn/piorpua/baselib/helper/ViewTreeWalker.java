@@ -0,0 +1,172 @@
+package cn.piorpua.baselib.helper;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: View 树遍历</p>
+ *
+ * 1. 使用可复用的显式栈代替递归, 深层级的 View 树不会增加调用栈深度;<br>
+ * 2. 同时支持先序({@link Visitor#onPreVisit(View)})与后序({@link Visitor#onPostVisit(View)})访问;<br>
+ * 3. 先序访问可返回 {@link ViewTreeWalker#SKIP_SUBTREE} 跳过子树, 任意访问可返回 {@link ViewTreeWalker#STOP} 终止遍历;<br>
+ * 4. 遍历过程中不分配内存(栈仅在首次达到新深度时扩容);<br>
+ */
+public final class ViewTreeWalker {
+
+    /*** 继续遍历 */
+    public static final int CONTINUE = 0;
+    /*** 跳过当前 View 的子树(仅在先序访问中有效) */
+    public static final int SKIP_SUBTREE = 1;
+    /*** 终止遍历 */
+    public static final int STOP = 2;
+
+    /*** 访问者 */
+    public static abstract class Visitor {
+
+        /***
+         * 先序访问: 在子 View 之前访问
+         * @return {@link ViewTreeWalker#CONTINUE}, {@link ViewTreeWalker#SKIP_SUBTREE} 或 {@link ViewTreeWalker#STOP}
+         */
+        public int onPreVisit(@NonNull View view) {
+            return CONTINUE;
+        }
+
+        /***
+         * 后序访问: 在子 View 之后访问(被跳过子树的 View 同样会被后序访问)
+         * @return {@link ViewTreeWalker#CONTINUE} 或 {@link ViewTreeWalker#STOP}
+         */
+        public int onPostVisit(@NonNull View view) {
+            return CONTINUE;
+        }
+    }
+
+    /*** 条件 */
+    public interface Predicate {
+
+        boolean apply(@NonNull View view);
+    }
+
+    /*** 初始栈容量 */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*** 共享实例, 非嵌套遍历时复用 */
+    private static final ViewTreeWalker sShared = new ViewTreeWalker();
+    private static boolean sSharedInUse;
+
+    /**
+     * 遍历以 root 为根的 View 树(包含 root)
+     * @return true 遍历完成, false 被 {@link ViewTreeWalker#STOP} 终止
+     */
+    @MainThread
+    public static boolean walk(@Nullable View root, @NonNull Visitor visitor) {
+        if (root == null) {
+            return true;
+        }
+
+        ViewTreeWalker walker;
+        synchronized (ViewTreeWalker.class) {
+            if (sSharedInUse) {
+                // 在访问者中嵌套遍历
+                walker = null;
+            } else {
+                sSharedInUse = true;
+                walker = sShared;
+            }
+        }
+
+        if (walker == null) {
+            return new ViewTreeWalker().traverse(root, visitor);
+        }
+
+        try {
+            return walker.traverse(root, visitor);
+        } finally {
+            synchronized (ViewTreeWalker.class) {
+                sSharedInUse = false;
+            }
+        }
+    }
+
+    private @NonNull ViewGroup[] mGroups = new ViewGroup[INITIAL_CAPACITY];
+    private @NonNull int[] mIndices = new int[INITIAL_CAPACITY];
+    private int mDepth;
+
+    private ViewTreeWalker() {}
+
+    private boolean traverse(@NonNull View root, @NonNull Visitor visitor) {
+        try {
+            if (!enter(root, visitor)) {
+                return false;
+            }
+
+            while (mDepth > 0) {
+                final int top = mDepth - 1;
+                final ViewGroup group = mGroups[top];
+                final int index = mIndices[top];
+
+                if (index < group.getChildCount()) {
+                    mIndices[top] = index + 1;
+
+                    View child = group.getChildAt(index);
+                    if (child != null && !enter(child, visitor)) {
+                        return false;
+                    }
+                } else {
+                    mGroups[top] = null;
+                    --mDepth;
+
+                    if (visitor.onPostVisit(group) == STOP) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            // 释放对 View 的引用
+            for (int i = 0; i < mDepth; ++i) {
+                mGroups[i] = null;
+            }
+            mDepth = 0;
+        }
+    }
+
+    /*** 先序访问; 若需遍历子树则入栈, 否则立即后序访问 */
+    private boolean enter(@NonNull View view, @NonNull Visitor visitor) {
+        int action = visitor.onPreVisit(view);
+        if (action == STOP) {
+            return false;
+        }
+
+        if (action == CONTINUE && view instanceof ViewGroup) {
+            push((ViewGroup) view);
+            return true;
+        }
+
+        return visitor.onPostVisit(view) != STOP;
+    }
+
+    private void push(@NonNull ViewGroup group) {
+        if (mDepth == mGroups.length) {
+            int capacity = mDepth * 2;
+
+            ViewGroup[] groups = new ViewGroup[capacity];
+            System.arraycopy(mGroups, 0, groups, 0, mDepth);
+            mGroups = groups;
+
+            int[] indices = new int[capacity];
+            System.arraycopy(mIndices, 0, indices, 0, mDepth);
+            mIndices = indices;
+        }
+
+        mGroups[mDepth] = group;
+        mIndices[mDepth] = 0;
+        ++mDepth;
+    }
+}
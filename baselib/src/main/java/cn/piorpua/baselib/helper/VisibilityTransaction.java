@@ -0,0 +1,176 @@
+package cn.piorpua.baselib.helper;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 批量可见性设置</p>
+ *
+ * 1. 收集多个 View 的目标可见性, 同一 View 多次设置以最后一次为准;<br>
+ * 2. {@link VisibilityTransaction#commit()} 时与当前可见性比较, 仅对实际变化的 View 调用 {@link View#setVisibility(int)};<br>
+ * 3. 统计因合并/去重而省去的 requestLayout 次数(涉及 {@link View#GONE} 的变化才会触发重新布局);<br>
+ *
+ * 对象可复用(如由 ViewHolder 持有), commit 后自动清空。仅在主线程使用。
+ *
+ * 示例
+ * <pre>
+ *     mTransaction.set(mTvTitle, View.VISIBLE)
+ *             .set(mIvIcon, hasIcon ? View.VISIBLE : View.GONE)
+ *             .set(mTvDesc, View.GONE)
+ *             .commit();
+ * </pre>
+ */
+@MainThread
+public final class VisibilityTransaction {
+
+    /*** 初始容量 */
+    private static final int INITIAL_CAPACITY = 8;
+
+    // 全局统计 >>>
+
+    private static long sRequestCount;
+    private static long sChangedCount;
+    private static long sAvoidedLayoutCount;
+
+    /*** 累计设置请求次数 */
+    public static long getTotalRequestCount() {
+        return sRequestCount;
+    }
+
+    /*** 累计实际变化的次数 */
+    public static long getTotalChangedCount() {
+        return sChangedCount;
+    }
+
+    /*** 累计省去的 requestLayout 次数 */
+    public static long getTotalAvoidedLayoutCount() {
+        return sAvoidedLayoutCount;
+    }
+
+    /*** 清空全局统计 */
+    public static void resetStats() {
+        sRequestCount = 0L;
+        sChangedCount = 0L;
+        sAvoidedLayoutCount = 0L;
+    }
+
+    // <<< 全局统计
+
+    private View[] mViews = new View[INITIAL_CAPACITY];
+    /*** 目标可见性, 初始为加入时的可见性 */
+    private int[] mTargets = new int[INITIAL_CAPACITY];
+    private int mSize;
+
+    /*** 逐个直接设置时会触发的 requestLayout 次数 */
+    private int mNaiveLayoutCount;
+
+    private int mLastAvoidedLayoutCount;
+
+    /*** 设置目标可见性 */
+    public @NonNull VisibilityTransaction set(@Nullable View view, int visibility) {
+        if (view == null) {
+            return this;
+        }
+
+        ++sRequestCount;
+
+        int index = indexOf(view);
+        if (index < 0) {
+            index = add(view);
+        }
+
+        int current = mTargets[index];
+        if (current != visibility) {
+            if (affectsLayout(current, visibility)) {
+                ++mNaiveLayoutCount;
+            }
+            mTargets[index] = visibility;
+        }
+        return this;
+    }
+
+    /*** 提交: 仅设置实际变化的 View, 并清空 */
+    public int commit() {
+        int changed = 0;
+        int layoutCount = 0;
+
+        for (int i = 0; i < mSize; ++i) {
+            View view = mViews[i];
+            int target = mTargets[i];
+
+            // 收集期间可能被其他代码修改过, 以当前状态为准
+            int current = view.getVisibility();
+            if (current != target) {
+                view.setVisibility(target);
+                ++changed;
+                if (affectsLayout(current, target)) {
+                    ++layoutCount;
+                }
+            }
+        }
+
+        mLastAvoidedLayoutCount = Math.max(0, mNaiveLayoutCount - layoutCount);
+        sChangedCount += changed;
+        sAvoidedLayoutCount += mLastAvoidedLayoutCount;
+
+        clear();
+        return changed;
+    }
+
+    /*** 放弃已收集的设置 */
+    public void clear() {
+        for (int i = 0; i < mSize; ++i) {
+            mViews[i] = null;
+        }
+        mSize = 0;
+        mNaiveLayoutCount = 0;
+    }
+
+    /*** 已收集的 View 数量 */
+    public int size() {
+        return mSize;
+    }
+
+    /*** 最近一次 {@link VisibilityTransaction#commit()} 省去的 requestLayout 次数 */
+    public int getLastAvoidedLayoutCount() {
+        return mLastAvoidedLayoutCount;
+    }
+
+    private int indexOf(View view) {
+        for (int i = 0; i < mSize; ++i) {
+            if (mViews[i] == view) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int add(View view) {
+        if (mSize == mViews.length) {
+            int capacity = mSize * 2;
+
+            View[] views = new View[capacity];
+            System.arraycopy(mViews, 0, views, 0, mSize);
+            mViews = views;
+
+            int[] targets = new int[capacity];
+            System.arraycopy(mTargets, 0, targets, 0, mSize);
+            mTargets = targets;
+        }
+
+        int visibility = view.getVisibility();
+        mViews[mSize] = view;
+        mTargets[mSize] = visibility;
+        return mSize++;
+    }
+
+    private static boolean affectsLayout(int from, int to) {
+        return from != to && (from == View.GONE || to == View.GONE);
+    }
+}
@@ -0,0 +1,131 @@
+package cn.piorpua.baselib.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 固定分桶直方图</p>
+ *
+ * 分桶上界在创建时确定(升序), 第 i 个桶统计 (bounds[i - 1], bounds[i]] 内的值, 最后一个桶统计超出最大上界的值。
+ * 记录时二分查找分桶并原子累加, 不加锁, 不分配内存。
+ * 分桶计数与 {@link StripedCounter} 一样按线程分段, 每个分段一行分桶, 行间至少间隔一个缓存行,
+ * 多线程记录同一分桶时互不竞争; 读取时累加所有分段。总和以 {@link StripedCounter} 累加。
+ */
+public final class Histogram {
+
+    /*** 默认分桶(纳秒): 1us ~ 1s, 按 4 倍递增 */
+    public static final long[] DEFAULT_NANOS_BOUNDS = {
+            1000L, 4000L, 16000L, 64000L, 256000L,
+            1000000L, 4000000L, 16000000L, 64000000L, 256000000L, 1000000000L
+    };
+
+    private final @NonNull String mName;
+    private final @NonNull long[] mBounds;
+    /*** 分桶数 */
+    private final int mBucketCount;
+    /*** 分段间隔(long 个数): 分桶数 + 一个缓存行 */
+    private final int mStride;
+    /*** STRIPES 行, 每行 mStride 个, 前 mBucketCount 个为分桶计数 */
+    private final @NonNull AtomicLongArray mCounts;
+    private final @NonNull StripedCounter mSum;
+
+    Histogram(@NonNull String name, @NonNull long[] bounds) {
+        if (bounds.length == 0) {
+            throw new IllegalArgumentException("bounds must not be empty");
+        }
+        for (int i = 1; i < bounds.length; ++i) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("bounds must be strictly ascending");
+            }
+        }
+
+        mName = name;
+        mBounds = bounds.clone();
+        mBucketCount = bounds.length + 1;
+        mStride = mBucketCount + StripedCounter.PADDING;
+        mCounts = new AtomicLongArray(StripedCounter.STRIPES * mStride);
+        mSum = new StripedCounter(name);
+    }
+
+    public @NonNull String getName() {
+        return mName;
+    }
+
+    public void record(long value) {
+        if (!MetricsRegistry.sEnabled) {
+            return;
+        }
+        mCounts.incrementAndGet(StripedCounter.stripe() * mStride + bucket(value));
+        mSum.add(value);
+    }
+
+    /*** 记录自 start({@link System#nanoTime()}) 起的耗时 */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /*** 分桶上界(副本) */
+    public @NonNull long[] getBounds() {
+        return mBounds.clone();
+    }
+
+    /*** 分桶数量, 比上界数量多 1 */
+    public int getBucketCount() {
+        return mBucketCount;
+    }
+
+    /*** 分桶计数(各分段之和) */
+    public long getCount(int bucket) {
+        if (bucket < 0 || bucket >= mBucketCount) {
+            throw new IllegalArgumentException("Illegal bucket: " + bucket);
+        }
+
+        long count = 0L;
+        for (int i = 0; i < StripedCounter.STRIPES; ++i) {
+            count += mCounts.get(i * mStride + bucket);
+        }
+        return count;
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < StripedCounter.STRIPES; ++i) {
+            final int offset = i * mStride;
+            for (int j = 0; j < mBucketCount; ++j) {
+                count += mCounts.get(offset + j);
+            }
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return mSum.get();
+    }
+
+    /*** 清零. 与写入并发时, 并发写入的部分可能丢失 */
+    public void reset() {
+        for (int i = 0; i < mCounts.length(); ++i) {
+            mCounts.set(i, 0L);
+        }
+        mSum.reset();
+    }
+
+    private int bucket(long value) {
+        int low = 0;
+        int high = mBounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (value <= mBounds[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
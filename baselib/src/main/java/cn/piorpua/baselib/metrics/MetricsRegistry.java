@@ -0,0 +1,120 @@
+package cn.piorpua.baselib.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 指标注册表</p>
+ *
+ * 1. 以名称获取(或创建) {@link StripedCounter} 与 {@link Histogram}, 调用方应将其保存为静态常量, 避免重复查找;<br>
+ * 2. {@link MetricsRegistry#snapshot()} 生成快照, 可导出为文本或紧凑的二进制格式({@link MetricsSnapshot});<br>
+ * 3. {@link MetricsRegistry#setEnabled(boolean)} 关闭后记录操作立即返回;<br>
+ *
+ * 库内已记录的指标:
+ * <pre>
+ *     prefs.read / prefs.write                 SharedPreferencesHelper 读写次数
+ *     prefs.commit.nanos                       SharedPreferencesHelper 提交耗时
+ *     handler.dispatch.nanos                   ReferenceHandler 处理消息耗时
+ *     handler.drop                             ReferenceHandler 因被引用对象失效而丢弃的消息数
+ *     presenter.create / presenter.destroy     MVPBasePresenter 创建与销毁次数
+ *     presenter.request.load / .shared         共享请求的实际加载次数与复用次数
+ *     checkbutton.measure.nanos / .draw.nanos  RoundRectCheckButton 测量与绘制耗时
+ * </pre>
+ */
+public final class MetricsRegistry {
+
+    /*** 全局开关, 由记录操作直接读取 */
+    static volatile boolean sEnabled = true;
+
+    private static final MetricsRegistry sIns = new MetricsRegistry();
+
+    public static @NonNull MetricsRegistry getInstance() {
+        return sIns;
+    }
+
+    private final ConcurrentMap<String, StripedCounter> mCounters =
+            new ConcurrentHashMap<String, StripedCounter>();
+    private final ConcurrentMap<String, Histogram> mHistograms =
+            new ConcurrentHashMap<String, Histogram>();
+
+    private MetricsRegistry() {}
+
+    public void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /*** 获取(或创建)计数器 */
+    public @NonNull StripedCounter counter(@NonNull String name) {
+        StripedCounter counter = mCounters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+
+        counter = new StripedCounter(name);
+        StripedCounter previous = mCounters.putIfAbsent(name, counter);
+        return previous == null ? counter : previous;
+    }
+
+    /*** 获取(或创建)耗时直方图, 使用 {@link Histogram#DEFAULT_NANOS_BOUNDS} */
+    public @NonNull Histogram histogram(@NonNull String name) {
+        return histogram(name, Histogram.DEFAULT_NANOS_BOUNDS);
+    }
+
+    /***
+     * 获取(或创建)直方图
+     * @param bounds 分桶上界(升序). 同名直方图已存在时忽略
+     */
+    public @NonNull Histogram histogram(@NonNull String name, @NonNull long[] bounds) {
+        Histogram histogram = mHistograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+
+        histogram = new Histogram(name, bounds);
+        Histogram previous = mHistograms.putIfAbsent(name, histogram);
+        return previous == null ? histogram : previous;
+    }
+
+    /*** 生成快照(按名称排序) */
+    public @NonNull MetricsSnapshot snapshot() {
+        List<String> counterNames = new ArrayList<String>(mCounters.keySet());
+        Collections.sort(counterNames);
+        long[] counterValues = new long[counterNames.size()];
+        for (int i = 0; i < counterValues.length; ++i) {
+            counterValues[i] = mCounters.get(counterNames.get(i)).get();
+        }
+
+        List<String> histogramNames = new ArrayList<String>(mHistograms.keySet());
+        Collections.sort(histogramNames);
+        List<MetricsSnapshot.HistogramValue> histogramValues =
+                new ArrayList<MetricsSnapshot.HistogramValue>(histogramNames.size());
+        for (String name : histogramNames) {
+            histogramValues.add(MetricsSnapshot.HistogramValue.of(mHistograms.get(name)));
+        }
+
+        return new MetricsSnapshot(counterNames, counterValues, histogramValues);
+    }
+
+    /*** 清零所有指标 */
+    public void reset() {
+        for (StripedCounter counter : mCounters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : mHistograms.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package cn.piorpua.baselib.metrics;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 指标快照(不可变)</p>
+ *
+ * 1. {@link MetricsSnapshot#toString()} 导出文本, 每行一个指标;<br>
+ * 2. {@link MetricsSnapshot#toByteArray()} 导出二进制: 数值以 zigzag 变长编码, 分桶上界以差值编码,
+ *    可通过 {@link MetricsSnapshot#fromByteArray(byte[])} 还原;<br>
+ */
+public final class MetricsSnapshot {
+
+    /*** 直方图快照 */
+    public static final class HistogramValue {
+
+        private final @NonNull String mName;
+        private final @NonNull long[] mBounds;
+        private final @NonNull long[] mCounts;
+        private final long mSum;
+
+        private HistogramValue(@NonNull String name,
+                               @NonNull long[] bounds, @NonNull long[] counts, long sum) {
+
+            mName = name;
+            mBounds = bounds;
+            mCounts = counts;
+            mSum = sum;
+        }
+
+        static @NonNull HistogramValue of(@NonNull Histogram histogram) {
+            long[] counts = new long[histogram.getBucketCount()];
+            for (int i = 0; i < counts.length; ++i) {
+                counts[i] = histogram.getCount(i);
+            }
+            return new HistogramValue(histogram.getName(), histogram.getBounds(), counts, histogram.getSum());
+        }
+
+        public @NonNull String getName() {
+            return mName;
+        }
+
+        public @NonNull long[] getBounds() {
+            return mBounds.clone();
+        }
+
+        public @NonNull long[] getCounts() {
+            return mCounts.clone();
+        }
+
+        public long getCount() {
+            long count = 0L;
+            for (long value : mCounts) {
+                count += value;
+            }
+            return count;
+        }
+
+        public long getSum() {
+            return mSum;
+        }
+
+        /*** 平均值, 没有记录时为 0 */
+        public long getMean() {
+            long count = getCount();
+            return count == 0L ? 0L : mSum / count;
+        }
+
+        /***
+         * 分位数所在分桶的上界
+         * @param quantile [0, 1]
+         * @return 落在最后一个分桶时返回 {@link Long#MAX_VALUE}, 没有记录时为 0
+         */
+        public long getQuantileBound(float quantile) {
+            long count = getCount();
+            if (count == 0L) {
+                return 0L;
+            }
+
+            long target = (long) Math.ceil(count * Math.max(0.0f, Math.min(1.0f, quantile)));
+            long seen = 0L;
+            for (int i = 0; i < mCounts.length; ++i) {
+                seen += mCounts[i];
+                if (seen >= target && seen > 0L) {
+                    return i < mBounds.length ? mBounds[i] : Long.MAX_VALUE;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final int MAGIC = 0x424C4D53; // "BLMS"
+    private static final int VERSION = 1;
+
+    private final @NonNull List<String> mCounterNames;
+    private final @NonNull long[] mCounterValues;
+    private final @NonNull List<HistogramValue> mHistograms;
+
+    MetricsSnapshot(@NonNull List<String> counterNames, @NonNull long[] counterValues,
+                    @NonNull List<HistogramValue> histograms) {
+
+        mCounterNames = Collections.unmodifiableList(counterNames);
+        mCounterValues = counterValues;
+        mHistograms = Collections.unmodifiableList(histograms);
+    }
+
+    public @NonNull List<String> getCounterNames() {
+        return mCounterNames;
+    }
+
+    /*** @return 0 if not exists */
+    public long getCounter(@NonNull String name) {
+        int index = mCounterNames.indexOf(name);
+        return index < 0 ? 0L : mCounterValues[index];
+    }
+
+    public @NonNull List<HistogramValue> getHistograms() {
+        return mHistograms;
+    }
+
+    /*** @return NULL if not exists */
+    public @Nullable HistogramValue getHistogram(@NonNull String name) {
+        for (HistogramValue histogram : mHistograms) {
+            if (histogram.mName.equals(name)) {
+                return histogram;
+            }
+        }
+        return null;
+    }
+
+    /***
+     * 文本格式:
+     * <pre>
+     *     counter name value
+     *     histogram name count=.. sum=.. mean=.. p50<=.. p99<=.. [le..=.. ..] inf=..
+     * </pre>
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < mCounterNames.size(); ++i) {
+            sb.append("counter ").append(mCounterNames.get(i))
+                    .append(' ').append(mCounterValues[i]).append('\n');
+        }
+        for (HistogramValue histogram : mHistograms) {
+            sb.append("histogram ").append(histogram.mName)
+                    .append(" count=").append(histogram.getCount())
+                    .append(" sum=").append(histogram.mSum)
+                    .append(" mean=").append(histogram.getMean());
+            appendQuantile(sb, " p50<=", histogram.getQuantileBound(0.5f));
+            appendQuantile(sb, " p99<=", histogram.getQuantileBound(0.99f));
+            for (int i = 0; i < histogram.mCounts.length; ++i) {
+                if (histogram.mCounts[i] == 0L) {
+                    continue;
+                }
+                if (i < histogram.mBounds.length) {
+                    sb.append(" le").append(histogram.mBounds[i]);
+                } else {
+                    sb.append(" inf");
+                }
+                sb.append('=').append(histogram.mCounts[i]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /*** 导出为二进制 */
+    public @NonNull byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+
+            writeVarLong(out, mCounterNames.size());
+            for (int i = 0; i < mCounterNames.size(); ++i) {
+                out.writeUTF(mCounterNames.get(i));
+                writeVarLong(out, mCounterValues[i]);
+            }
+
+            writeVarLong(out, mHistograms.size());
+            for (HistogramValue histogram : mHistograms) {
+                out.writeUTF(histogram.mName);
+                writeVarLong(out, histogram.mBounds.length);
+                long previous = 0L;
+                for (long bound : histogram.mBounds) {
+                    writeVarLong(out, bound - previous);
+                    previous = bound;
+                }
+                for (long count : histogram.mCounts) {
+                    writeVarLong(out, count);
+                }
+                writeVarLong(out, histogram.mSum);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出
+            e.printStackTrace();
+        }
+        return bytes.toByteArray();
+    }
+
+    /*** 从 {@link MetricsSnapshot#toByteArray()} 还原 */
+    public static @NonNull MetricsSnapshot fromByteArray(@NonNull byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Illegal metrics snapshot magic.");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported metrics snapshot version: " + version);
+        }
+
+        int counterSize = readSize(in);
+        List<String> counterNames = new ArrayList<String>(counterSize);
+        long[] counterValues = new long[counterSize];
+        for (int i = 0; i < counterSize; ++i) {
+            counterNames.add(in.readUTF());
+            counterValues[i] = readVarLong(in);
+        }
+
+        int histogramSize = readSize(in);
+        List<HistogramValue> histograms = new ArrayList<HistogramValue>(histogramSize);
+        for (int i = 0; i < histogramSize; ++i) {
+            String name = in.readUTF();
+            long[] bounds = new long[readSize(in)];
+            long previous = 0L;
+            for (int j = 0; j < bounds.length; ++j) {
+                previous += readVarLong(in);
+                bounds[j] = previous;
+            }
+            long[] counts = new long[bounds.length + 1];
+            for (int j = 0; j < counts.length; ++j) {
+                counts[j] = readVarLong(in);
+            }
+            histograms.add(new HistogramValue(name, bounds, counts, readVarLong(in)));
+        }
+
+        return new MetricsSnapshot(counterNames, counterValues, histograms);
+    }
+
+    private static void appendQuantile(@NonNull StringBuilder sb, @NonNull String label, long bound) {
+        sb.append(label);
+        if (Long.MAX_VALUE == bound) {
+            sb.append("inf");
+        } else {
+            sb.append(bound);
+        }
+    }
+
+    /*** zigzag 变长编码 */
+    private static void writeVarLong(@NonNull DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0L) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(@NonNull DataInputStream in) throws IOException {
+        long zigzag = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    private static int readSize(@NonNull DataInputStream in) throws IOException {
+        long size = readVarLong(in);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Illegal size: " + size);
+        }
+        return (int) size;
+    }
+}
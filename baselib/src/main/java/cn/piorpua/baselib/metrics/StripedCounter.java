@@ -0,0 +1,76 @@
+package cn.piorpua.baselib.metrics;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 分段无锁计数器</p>
+ *
+ * 按线程 ID 分散到多个分段, 各分段间隔一个缓存行, 多线程同时计数时互不竞争;
+ * 读取时累加所有分段, 因此读取比写入慢, 适用于写多读少的统计。
+ */
+public final class StripedCounter {
+
+    /*** 分段间隔(long 个数), 8 * 8 字节为一个缓存行 */
+    static final int PADDING = 8;
+
+    /*** 分段数: 不小于 CPU 数的 2 的幂, 最多 16 */
+    static final int STRIPES;
+
+    static {
+        int cpu = Math.min(16, Math.max(1, Runtime.getRuntime().availableProcessors()));
+        int stripes = 1;
+        while (stripes < cpu) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    private final @NonNull String mName;
+    private final @NonNull AtomicLongArray mCells = new AtomicLongArray(STRIPES * PADDING);
+
+    StripedCounter(@NonNull String name) {
+        mName = name;
+    }
+
+    public @NonNull String getName() {
+        return mName;
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void add(long delta) {
+        if (!MetricsRegistry.sEnabled) {
+            return;
+        }
+        mCells.addAndGet(stripe() * PADDING, delta);
+    }
+
+    /*** 当前计数(各分段之和) */
+    public long get() {
+        long sum = 0L;
+        for (int i = 0; i < STRIPES; ++i) {
+            sum += mCells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /*** 清零. 与写入并发时, 并发写入的部分可能丢失 */
+    public void reset() {
+        for (int i = 0; i < STRIPES; ++i) {
+            mCells.set(i * PADDING, 0L);
+        }
+    }
+
+    /*** 当前线程的分段序号 */
+    static int stripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,152 @@
+package cn.piorpua.baselib.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckButton} 矢量绘制图标</p>
+ *
+ * 1. 图标由若干条折线描述, 坐标归一化到 [0, 1] 区间, 以图标画笔描边绘制;<br>
+ * 2. 按尺寸缩放后的 {@link Path} 缓存在图标内, 尺寸不变时绘制不分配内存;<br>
+ * 3. 内置 加号, 对勾, 减号, 箭头, 关闭 图标, 可通过 {@link DrawIconGlyph#register(int, DrawIconGlyph)}
+ *    注册自定义图标, XML 中以整数 ID 引用;<br>
+ */
+public final class DrawIconGlyph {
+
+    /*** 加号 */
+    public static final @NonNull DrawIconGlyph ADD = new DrawIconGlyph(
+            new float[] { 0.0f, 0.5f, 1.0f, 0.5f },
+            new float[] { 0.5f, 0.0f, 0.5f, 1.0f });
+    /*** 对勾 */
+    public static final @NonNull DrawIconGlyph CHECK = new DrawIconGlyph(
+            new float[] { 0.0f, 0.55f, 0.38f, 0.9f, 1.0f, 0.12f });
+    /*** 减号 */
+    public static final @NonNull DrawIconGlyph MINUS = new DrawIconGlyph(
+            new float[] { 0.0f, 0.5f, 1.0f, 0.5f });
+    /*** 箭头(向右) */
+    public static final @NonNull DrawIconGlyph ARROW = new DrawIconGlyph(
+            new float[] { 0.0f, 0.5f, 1.0f, 0.5f },
+            new float[] { 0.55f, 0.1f, 1.0f, 0.5f, 0.55f, 0.9f });
+    /*** 关闭 */
+    public static final @NonNull DrawIconGlyph CLOSE = new DrawIconGlyph(
+            new float[] { 0.0f, 0.0f, 1.0f, 1.0f },
+            new float[] { 0.0f, 1.0f, 1.0f, 0.0f });
+
+    /*** 每个图标缓存的尺寸数量, 超出时清空 */
+    private static final int MAX_CACHED_SIZES = 8;
+
+    private static final SparseArray<DrawIconGlyph> sRegistry = new SparseArray<DrawIconGlyph>();
+
+    static {
+        sRegistry.put(RoundRectCheckButton.DrawIcon.ADD.getID(), ADD);
+        sRegistry.put(RoundRectCheckButton.DrawIcon.CHECK.getID(), CHECK);
+        sRegistry.put(RoundRectCheckButton.DrawIcon.MINUS.getID(), MINUS);
+        sRegistry.put(RoundRectCheckButton.DrawIcon.ARROW.getID(), ARROW);
+        sRegistry.put(RoundRectCheckButton.DrawIcon.CLOSE.getID(), CLOSE);
+    }
+
+    /***
+     * 注册自定义图标, 注册后可在 XML 中以 ID 引用
+     * @param id 大于 0, 且未被占用(内置图标占用 {@link RoundRectCheckButton.DrawIcon} 的 ID)
+     */
+    public static void register(int id, @NonNull DrawIconGlyph glyph) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("id must be positive: " + id);
+        }
+
+        synchronized (sRegistry) {
+            if (sRegistry.get(id) != null) {
+                throw new IllegalArgumentException("id already registered: " + id);
+            }
+            sRegistry.put(id, glyph);
+        }
+    }
+
+    /***
+     * 根据 ID 获取图标
+     * @return NULL if not registered
+     */
+    public static @Nullable DrawIconGlyph get(int id) {
+        synchronized (sRegistry) {
+            return sRegistry.get(id);
+        }
+    }
+
+    /*** 归一化折线, 每条为 x0, y0, x1, y1, ... */
+    private final @NonNull float[][] mStrokes;
+
+    /*** 缩放后的路径, 以 (宽 << 16 | 高) 为键 */
+    private final @NonNull SparseArray<Path> mPaths = new SparseArray<Path>();
+
+    /***
+     * @param strokes 折线, 每条至少两个点, 坐标在 [0, 1] 区间
+     */
+    public DrawIconGlyph(@NonNull float[]... strokes) {
+        if (strokes.length == 0) {
+            throw new IllegalArgumentException("strokes must not be empty");
+        }
+
+        mStrokes = new float[strokes.length][];
+        for (int i = 0; i < strokes.length; ++i) {
+            float[] stroke = strokes[i];
+            if (stroke == null || stroke.length < 4 || stroke.length % 2 != 0) {
+                throw new IllegalArgumentException("stroke must contain at least two points: " + i);
+            }
+            for (float value : stroke) {
+                if (value < 0.0f || value > 1.0f) {
+                    throw new IllegalArgumentException("stroke coordinate out of [0, 1]: " + value);
+                }
+            }
+            mStrokes[i] = stroke.clone();
+        }
+    }
+
+    /*** 在指定区域内描边绘制图标, 画笔需为 {@link Paint.Style#STROKE} */
+    @MainThread
+    public void draw(@NonNull Canvas canvas, float left, float top,
+                     int width, int height, @NonNull Paint paint) {
+
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        Path path = getPath(width, height);
+        int count = canvas.save();
+        canvas.translate(left, top);
+        canvas.drawPath(path, paint);
+        canvas.restoreToCount(count);
+    }
+
+    /*** 获取缩放到指定尺寸的路径, 原点为图标左上角 */
+    @MainThread
+    @NonNull Path getPath(int width, int height) {
+        int key = (width << 16) | (height & 0xFFFF);
+        Path path = mPaths.get(key);
+        if (path != null) {
+            return path;
+        }
+
+        path = new Path();
+        for (float[] stroke : mStrokes) {
+            path.moveTo(stroke[0] * width, stroke[1] * height);
+            for (int i = 2; i < stroke.length; i += 2) {
+                path.lineTo(stroke[i] * width, stroke[i + 1] * height);
+            }
+        }
+
+        if (mPaths.size() >= MAX_CACHED_SIZES) {
+            mPaths.clear();
+        }
+        mPaths.put(key, path);
+        return path;
+    }
+}
@@ -0,0 +1,704 @@
+package cn.piorpua.baselib.widget;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.text.TextUtils;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+import cn.piorpua.baselib.helper.UserInterfaceHelper;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: 圆角状态 Drawable</p>
+ *
+ * 1. 绘制 {@link RoundRectCheckStyle} 描述的圆角矩形背景, 图标与文字, {@link RoundRectCheckButton} 即委托本类绘制;<br>
+ * 2. 可直接作为 TextView 等控件的背景或 compound drawable, 无需额外的 View 层级;<br>
+ * 3. 选定状态默认只由 {@link RoundRectCheckDrawable#setChecked(boolean)} 设置;
+ *    作为背景时, 控件首次出现 state_checked 或 state_selected 状态后(或调用
+ *    {@link RoundRectCheckDrawable#setFollowViewState(boolean)} 后)改为跟随控件状态,
+ *    此后控件状态变化将覆盖直接设置的值; 非 Checkable 控件(如普通 TextView)的按下/焦点变化不会重置选定状态;<br>
+ * 4. 固有尺寸为样式的期望尺寸, 修改样式导致尺寸变化时需由使用方重新布局;<br>
+ *
+ * 仅在主线程使用。
+ */
+public final class RoundRectCheckDrawable extends Drawable {
+
+    /*** 状态切换动画中, 不同图标交替时的旋转角度 */
+    private static final float TRANSITION_ICON_ROTATION = 90.0f;
+    /*** 状态切换动画插值器 */
+    private static final TimeInterpolator TRANSITION_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    /*** 样式(共享, 不可变) */
+    private @NonNull RoundRectCheckStyle mStyle;
+
+    /*** 选定/未选定 标志位 */
+    private boolean mChecked;
+    /*** 是否跟随控件的 state_checked / state_selected 状态 */
+    private boolean mFollowViewState;
+
+    private int mAlpha = 0xFF;
+    private @Nullable ColorFilter mColorFilter;
+    /*** 设置 ColorFilter 时用于离屏图层 */
+    private @Nullable Paint mLayerPaint;
+
+    /*** 是否使用状态位图缓存({@link RoundRectCheckStateCache}) */
+    private boolean mStateCacheEnabled;
+
+    /*** 是否播放状态切换动画 */
+    private boolean mTransitionEnabled;
+    /*** 状态切换动画时长(ms) */
+    private int mTransitionDuration;
+    /*** 状态切换动画开始时间({@link RoundRectCheckTransition#now()}), 小于 0 表示没有动画 */
+    private long mTransitionStartTime = -1L;
+    /*** 由共享的动画驱动回调 */
+    private final RoundRectCheckTransition.Target mTransitionTarget =
+            new RoundRectCheckTransition.Target() {
+
+        @Override
+        public boolean onTransitionFrame(long now) {
+            if (mTransitionStartTime < 0L) {
+                return false;
+            }
+            if (now - mTransitionStartTime >= mTransitionDuration) {
+                mTransitionStartTime = -1L;
+            }
+            invalidateSelf();
+            return mTransitionStartTime >= 0L;
+        }
+    };
+
+    /*** 半透明绘制用的图标副本及其来源, 见 {@link #obtainAlphaIcon(int, Drawable)} */
+    private final Drawable[] mAlphaIcons = new Drawable[2];
+    private final Drawable[] mAlphaIconSources = new Drawable[2];
+
+    // 绘制几何缓存: 尺寸/文字/图标/字号变化时重建, draw 中仅复用 >>>
+
+    /*** 几何缓存是否需要重建 */
+    private boolean mGeometryDirty = true;
+    /*** 几何缓存对应的尺寸 */
+    private int mGeometryWidth;
+    private int mGeometryHeight;
+
+    /*** 背景圆角矩形路径 */
+    private final Path mRectPath = new Path();
+    /*** 构建路径用的临时矩形 */
+    private final RectF mArcRect = new RectF();
+
+    /*** 图标位置与大小, 下标见 {@link RoundRectCheckStyle#stateIndex(boolean)} */
+    private final float[] mIconLeft = new float[2];
+    private final float[] mIconTop = new float[2];
+    private final int[] mIconWidth = new int[2];
+    private final int[] mIconHeight = new int[2];
+    /*** 文字绘制起点 X */
+    private final float[] mTextX = new float[2];
+    /*** 文字垂直居中的基线 Y */
+    private float mTextBaselineY;
+
+    // <<< 绘制几何缓存
+
+    public RoundRectCheckDrawable(@NonNull RoundRectCheckStyle style) {
+        mStyle = style;
+        mChecked = style.isChecked();
+        mStateCacheEnabled = style.isStateCacheEnabled();
+        mTransitionEnabled = style.isCheckTransitionEnabled();
+        mTransitionDuration = style.getCheckTransitionDuration();
+    }
+
+    /*** 以 style 资源(RoundRectCheckButton 的属性)创建 */
+    public RoundRectCheckDrawable(@NonNull Context context, @StyleRes int styleRes) {
+        this(RoundRectCheckStyle.obtain(context, styleRes));
+    }
+
+    /***
+     * 设置样式<br>
+     * 仅替换外观; 选定状态, 状态位图缓存与状态切换动画等配置保持不变
+     */
+    public void setStyle(@NonNull RoundRectCheckStyle style) {
+        if (mStyle == style) {
+            return;
+        }
+
+        RoundRectCheckStyle oldStyle = mStyle;
+        mStyle = style;
+
+        if (!oldStyle.isGeometryEqual(style)) {
+            mGeometryDirty = true;
+        }
+        invalidateSelf();
+    }
+
+    public @NonNull RoundRectCheckStyle getStyle() {
+        return mStyle;
+    }
+
+    /*** 设置 未选定/选定 状态, 可见且已关联 Callback 时按配置播放过渡动画 */
+    public void setChecked(boolean checked) {
+        setChecked(checked, isVisible() && getCallback() != null);
+    }
+
+    /***
+     * 设置 未选定/选定 状态
+     * @param animate 是否允许播放过渡动画(仍需开启 {@link RoundRectCheckDrawable#setCheckTransitionEnabled(boolean)})
+     */
+    public void setChecked(boolean checked, boolean animate) {
+        if (mChecked == checked) {
+            return;
+        }
+        mChecked = checked;
+
+        if (animate && mTransitionEnabled && mTransitionDuration > 0) {
+            startTransition();
+        } else {
+            endTransition();
+        }
+        invalidateSelf();
+    }
+
+    public boolean isChecked() {
+        return mChecked;
+    }
+
+    /***
+     * 设置是否跟随控件的 state_checked / state_selected 状态<br>
+     * 默认在首次出现这两种状态时自动开启; 用于初始未选定的 Checkable 控件时可提前开启
+     */
+    public void setFollowViewState(boolean value) {
+        if (mFollowViewState == value) {
+            return;
+        }
+        mFollowViewState = value;
+        if (value) {
+            onStateChange(getState());
+        }
+    }
+
+    public boolean isFollowViewState() {
+        return mFollowViewState;
+    }
+
+    /*** 设置是否使用状态位图缓存 */
+    public void setStateCacheEnabled(boolean value) {
+        if (mStateCacheEnabled == value) {
+            return;
+        }
+        mStateCacheEnabled = value;
+        invalidateSelf();
+    }
+
+    public boolean isStateCacheEnabled() {
+        return mStateCacheEnabled;
+    }
+
+    /*** 设置 未选定/选定 状态切换时是否播放过渡动画 */
+    public void setCheckTransitionEnabled(boolean value) {
+        if (mTransitionEnabled == value) {
+            return;
+        }
+        mTransitionEnabled = value;
+        if (!value && mTransitionStartTime >= 0L) {
+            endTransition();
+            invalidateSelf();
+        }
+    }
+
+    public boolean isCheckTransitionEnabled() {
+        return mTransitionEnabled;
+    }
+
+    /*** 设置状态切换动画时长(ms) */
+    public void setCheckTransitionDuration(int duration) {
+        mTransitionDuration = Math.max(0, duration);
+    }
+
+    public int getCheckTransitionDuration() {
+        return mTransitionDuration;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return mStyle.getDesiredWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return mStyle.getDesiredHeight();
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    protected boolean onStateChange(int[] state) {
+        boolean checked = false;
+        if (state != null) {
+            for (int value : state) {
+                if (android.R.attr.state_checked == value || android.R.attr.state_selected == value) {
+                    checked = true;
+                    break;
+                }
+            }
+        }
+
+        if (checked) {
+            mFollowViewState = true;
+        }
+        // 未跟随时(如非 Checkable 控件的按下/焦点变化)保留直接设置的状态
+        if (!mFollowViewState || mChecked == checked) {
+            return false;
+        }
+        setChecked(checked);
+        return true;
+    }
+
+    @Override
+    public void jumpToCurrentState() {
+        super.jumpToCurrentState();
+        if (mTransitionStartTime >= 0L) {
+            endTransition();
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        if (!visible) {
+            endTransition();
+        }
+        return super.setVisible(visible, restart);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mAlpha == alpha) {
+            return;
+        }
+        mAlpha = alpha;
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        if (mColorFilter == colorFilter) {
+            return;
+        }
+        mColorFilter = colorFilter;
+        if (colorFilter != null && mLayerPaint == null) {
+            mLayerPaint = new Paint();
+        }
+        if (mLayerPaint != null) {
+            mLayerPaint.setColorFilter(colorFilter);
+        }
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        mGeometryDirty = true;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        final Rect bounds = getBounds();
+        final int width = bounds.width();
+        final int height = bounds.height();
+        if (width <= 0 || height <= 0 || mAlpha == 0) {
+            return;
+        }
+
+        ensureGeometry(width, height);
+
+        int saveCount = canvas.save();
+        if (mColorFilter != null && mLayerPaint != null) {
+            canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom,
+                    mLayerPaint, Canvas.ALL_SAVE_FLAG);
+        }
+        canvas.translate(bounds.left, bounds.top);
+
+        if (mTransitionStartTime >= 0L) {
+            drawTransition(canvas, TRANSITION_INTERPOLATOR.getInterpolation(
+                    getTransitionFraction(RoundRectCheckTransition.now())));
+        } else if (!mStateCacheEnabled || !drawStateCache(canvas, mChecked, width, height)) {
+            drawState(canvas, mChecked, mAlpha);
+        }
+
+        canvas.restoreToCount(saveCount);
+    }
+
+    /*** 绘制指定状态, 需已构建几何缓存 */
+    private void drawState(Canvas canvas, boolean checked, int alpha) {
+        final int index = stateIndex(checked);
+
+        // 背景
+
+        mStyle.getRectPaint().setColor(UserInterfaceHelper.multiplyAlpha(getRectColor(checked), alpha));
+        canvas.drawPath(mRectPath, mStyle.getRectPaint());
+
+        // 图标
+
+        drawIcon(canvas, checked, mIconLeft[index], mIconTop[index], getDrawIconColor(checked), alpha);
+
+        // 文字
+
+        drawText(canvas, getText(checked), mTextX[index],
+                UserInterfaceHelper.multiplyAlpha(getTextColor(checked), alpha));
+    }
+
+    /***
+     * 绘制状态切换动画中的一帧, 需已构建几何缓存
+     * @param fraction 由 !mChecked 切换至 mChecked 的进度, [0, 1]
+     */
+    private void drawTransition(Canvas canvas, float fraction) {
+        final boolean from = !mChecked;
+        final boolean to = mChecked;
+        final int fromIndex = stateIndex(from);
+        final int toIndex = stateIndex(to);
+
+        // 背景: 颜色插值
+
+        mStyle.getRectPaint().setColor(UserInterfaceHelper.multiplyAlpha(UserInterfaceHelper.blendColor(
+                getRectColor(from), getRectColor(to), fraction), mAlpha));
+        canvas.drawPath(mRectPath, mStyle.getRectPaint());
+
+        // 图标: 相同则插值位置与颜色, 不同则旋转并交叉淡入淡出
+
+        if (getIcon(from) == getIcon(to) &&
+                (getIcon(to) != null || getDrawIcon(from) == getDrawIcon(to))) {
+
+            drawIcon(canvas, to,
+                    lerp(mIconLeft[fromIndex], mIconLeft[toIndex], fraction),
+                    lerp(mIconTop[fromIndex], mIconTop[toIndex], fraction),
+                    UserInterfaceHelper.blendColor(
+                            getDrawIconColor(from), getDrawIconColor(to), fraction),
+                    mAlpha);
+        } else {
+            drawRotatedIcon(canvas, from,
+                    TRANSITION_ICON_ROTATION * fraction, (int) (mAlpha * (1.0f - fraction)));
+            drawRotatedIcon(canvas, to,
+                    TRANSITION_ICON_ROTATION * (fraction - 1.0f), (int) (mAlpha * fraction));
+        }
+
+        // 文字: 相同则插值位置与颜色, 不同则交叉淡入淡出
+
+        String fromText = getText(from);
+        String toText = getText(to);
+        if (TextUtils.equals(fromText, toText)) {
+            drawText(canvas, toText,
+                    lerp(mTextX[fromIndex], mTextX[toIndex], fraction),
+                    UserInterfaceHelper.multiplyAlpha(UserInterfaceHelper.blendColor(
+                            getTextColor(from), getTextColor(to), fraction), mAlpha));
+        } else {
+            drawText(canvas, fromText, mTextX[fromIndex], UserInterfaceHelper.multiplyAlpha(
+                    getTextColor(from), (int) (mAlpha * (1.0f - fraction))));
+            drawText(canvas, toText, mTextX[toIndex], UserInterfaceHelper.multiplyAlpha(
+                    getTextColor(to), (int) (mAlpha * fraction)));
+        }
+    }
+
+    /*** 以图标中心旋转绘制图标 */
+    private void drawRotatedIcon(Canvas canvas, boolean checked, float degrees, int alpha) {
+        if (alpha <= 0) {
+            return;
+        }
+
+        final int index = stateIndex(checked);
+        float iconLeft = mIconLeft[index];
+        float iconTop = mIconTop[index];
+
+        int saveCount = canvas.save();
+        canvas.rotate(degrees,
+                iconLeft + mIconWidth[index] / 2.0f, iconTop + mIconHeight[index] / 2.0f);
+        drawIcon(canvas, checked, iconLeft, iconTop, getDrawIconColor(checked), alpha);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /*** 绘制图标 */
+    private void drawIcon(Canvas canvas, boolean checked,
+                          float iconLeft, float iconTop, @ColorInt int drawIconColor, int alpha) {
+
+        final int index = stateIndex(checked);
+        final int iconWidth = mIconWidth[index];
+        final int iconHeight = mIconHeight[index];
+
+        Drawable icon = getIcon(checked);
+        if (icon != null) {
+            int left = (int) iconLeft;
+            int top = (int) iconTop;
+            int right = left + iconWidth;
+            int bottom = top + iconHeight;
+            if (alpha >= 0xFF) {
+                icon.setBounds(left, top, right, bottom);
+                icon.draw(canvas);
+                return;
+            }
+
+            // 样式中的图标为多个控件共享, 半透明时不修改其透明度
+            Drawable alphaIcon = obtainAlphaIcon(index, icon);
+            if (alphaIcon != null) {
+                alphaIcon.setBounds(left, top, right, bottom);
+                alphaIcon.setAlpha(alpha);
+                alphaIcon.draw(canvas);
+            } else {
+                icon.setBounds(left, top, right, bottom);
+                int saveCount = canvas.saveLayerAlpha(left, top, right, bottom, alpha, Canvas.ALL_SAVE_FLAG);
+                icon.draw(canvas);
+                canvas.restoreToCount(saveCount);
+            }
+            return;
+        }
+
+        DrawIconGlyph drawIcon = getDrawIcon(checked);
+        if (drawIcon == null) {
+            return;
+        }
+
+        mStyle.getIconPaint().setColor(UserInterfaceHelper.multiplyAlpha(drawIconColor, alpha));
+        drawIcon.draw(canvas, iconLeft, iconTop, iconWidth, iconHeight, mStyle.getIconPaint());
+    }
+
+    /***
+     * 获取半透明绘制用的图标副本<br>
+     * 由图标的 ConstantState 创建并 mutate, 仅本 Drawable 使用, 图标变化时重建
+     * @return null 表示图标无 ConstantState, 无法创建副本
+     */
+    private @Nullable Drawable obtainAlphaIcon(int index, @NonNull Drawable icon) {
+        if (mAlphaIconSources[index] != icon) {
+            Drawable.ConstantState state = icon.getConstantState();
+            mAlphaIcons[index] = state == null ? null : state.newDrawable().mutate();
+            mAlphaIconSources[index] = icon;
+        }
+
+        Drawable alphaIcon = mAlphaIcons[index];
+        if (alphaIcon != null) {
+            alphaIcon.setState(icon.getState());
+        }
+        return alphaIcon;
+    }
+
+    /*** 绘制文字 */
+    private void drawText(Canvas canvas, @Nullable String text, float x, @ColorInt int color) {
+        if (TextUtils.isEmpty(text) || (color >>> 24) == 0) {
+            return;
+        }
+
+        mStyle.getTextPaint().setColor(color);
+        canvas.drawText(text, x, mTextBaselineY, mStyle.getTextPaint());
+    }
+
+    /*** 开始(或反向)状态切换动画 */
+    private void startTransition() {
+        final long now = RoundRectCheckTransition.now();
+
+        // 动画进行中再次切换时, 从当前位置反向
+        float fraction = 0.0f;
+        if (mTransitionStartTime >= 0L) {
+            fraction = 1.0f - getTransitionFraction(now);
+        }
+
+        mTransitionStartTime = now - (long) (fraction * mTransitionDuration);
+        RoundRectCheckTransition.getInstance().start(mTransitionTarget);
+    }
+
+    /*** 立即结束状态切换动画 */
+    private void endTransition() {
+        if (mTransitionStartTime < 0L) {
+            return;
+        }
+        mTransitionStartTime = -1L;
+        RoundRectCheckTransition.getInstance().cancel(mTransitionTarget);
+    }
+
+    /*** 状态切换动画的线性进度, [0, 1] */
+    private float getTransitionFraction(long now) {
+        if (mTransitionStartTime < 0L || mTransitionDuration <= 0) {
+            return 1.0f;
+        }
+        float fraction = (float) (now - mTransitionStartTime) / mTransitionDuration;
+        return Math.max(0.0f, Math.min(1.0f, fraction));
+    }
+
+    private static float lerp(float from, float to, float fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    /***
+     * 从状态位图缓存绘制, 未命中时绘制到新位图并缓存
+     * @return false 表示无法缓存(尺寸过大, 图标无 ConstantState 等), 需直接绘制
+     */
+    private boolean drawStateCache(Canvas canvas, boolean checked, int width, int height) {
+        RoundRectCheckStateCache cache = RoundRectCheckStateCache.getInstance();
+        if (mAlpha < 0xFF || !cache.accepts(width, height)) {
+            return false;
+        }
+
+        Drawable icon = getIcon(checked);
+        Drawable.ConstantState iconState = null;
+        if (icon != null) {
+            iconState = icon.getConstantState();
+            if (iconState == null) {
+                return false;
+            }
+        }
+
+        RoundRectCheckStateCache.Key key = cache.probe();
+        key.mWidth = width;
+        key.mHeight = height;
+        key.mChecked = checked;
+        key.mRectFill = mStyle.isRectFill();
+        key.mRectStrokeWidth = mStyle.getRectStrokeWidth();
+        key.mRectColor = getRectColor(checked);
+        key.mIcon = iconState;
+        key.mDrawIcon = icon == null ? getDrawIcon(checked) : null;
+        key.mDrawIconStrokeWidth = mStyle.getDrawIconStrokeWidth();
+        key.mDrawIconColor = getDrawIconColor(checked);
+        key.mIconWidth = mStyle.getIconWidth(checked);
+        key.mIconHeight = mStyle.getIconHeight(checked);
+        key.mIconSpace = mStyle.getIconSpace(checked);
+        key.mText = getText(checked);
+        key.mTextSize = mStyle.getTextPaint().getTextSize();
+        key.mTextColor = getTextColor(checked);
+        key.mTypeface = mStyle.getTextPaint().getTypeface();
+
+        Bitmap bitmap = cache.get();
+        if (bitmap == null) {
+            try {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                e.printStackTrace();
+                key.clear();
+                return false;
+            }
+
+            drawState(new Canvas(bitmap), checked, 0xFF);
+            cache.put(bitmap);
+        }
+
+        canvas.drawBitmap(bitmap, 0.0f, 0.0f, null);
+        return true;
+    }
+
+    /*** 按需重建几何缓存 */
+    private void ensureGeometry(int width, int height) {
+        if (!mGeometryDirty && mGeometryWidth == width && mGeometryHeight == height) {
+            return;
+        }
+
+        mGeometryDirty = false;
+        mGeometryWidth = width;
+        mGeometryHeight = height;
+
+        // 背景(需考虑边框大小)
+
+        final int rectStrokeWidth = mStyle.getRectStrokeWidth();
+        float halfRectStrokeWidth = rectStrokeWidth / 2.0f;
+
+        mRectPath.reset();
+        mArcRect.set(halfRectStrokeWidth, halfRectStrokeWidth,
+                height - rectStrokeWidth, height - rectStrokeWidth);
+        mRectPath.arcTo(mArcRect, 90.0f, 180.0f);
+        mRectPath.lineTo(width - height / 2.0f, halfRectStrokeWidth);
+        mArcRect.set(width - height + halfRectStrokeWidth, halfRectStrokeWidth,
+                width - halfRectStrokeWidth, height - halfRectStrokeWidth);
+        mRectPath.arcTo(mArcRect, 270.0f, 180.0f);
+        mRectPath.close();
+
+        // 文字基线
+
+        mTextBaselineY = height / 2.0f + mStyle.getTextBaselineOffset();
+
+        // 图标与文字位置(两种状态)
+
+        buildStateGeometry(false, width, height);
+        buildStateGeometry(true, width, height);
+    }
+
+    private void buildStateGeometry(boolean checked, int width, int height) {
+        final int index = stateIndex(checked);
+
+        int iconWidth = mStyle.getIconWidth(checked);
+        int iconHeight = mStyle.getIconHeight(checked);
+        mIconWidth[index] = iconWidth;
+        mIconHeight[index] = iconHeight;
+        if (getIcon(checked) != null) {
+            // Drawable 使用整数坐标
+            mIconLeft[index] = height / 2;
+            mIconTop[index] = (height - iconHeight) / 2;
+        } else {
+            mIconLeft[index] = height / 2.0f;
+            mIconTop[index] = (height - iconHeight) / 2.0f;
+        }
+
+        String text = getText(checked);
+        if (TextUtils.isEmpty(text)) {
+            mTextX[index] = 0.0f;
+            return;
+        }
+
+        int iconSpace = mStyle.getIconSpace(checked);
+        float textWidth = mStyle.getTextWidth(checked);
+        float textLeftX = height / 2.0f + iconSpace;
+        float textCenterOffsetX = (width - height - iconSpace - textWidth) / 2.0f;
+        mTextX[index] = textLeftX + textCenterOffsetX;
+    }
+
+    private static int stateIndex(boolean checked) {
+        return RoundRectCheckStyle.stateIndex(checked);
+    }
+
+    /*** 获取矩形色值 */
+    private @ColorInt int getRectColor(boolean checked) {
+        return mStyle.getRectColor(checked);
+    }
+
+    /*** 获取图标 */
+    private @Nullable Drawable getIcon(boolean checked) {
+        return mStyle.getIcon(checked);
+    }
+
+    /*** 获取绘制图标色值 */
+    private @ColorInt int getDrawIconColor(boolean checked) {
+        return mStyle.getDrawIconColor(checked);
+    }
+
+    private @Nullable DrawIconGlyph getDrawIcon(boolean checked) {
+        return mStyle.getDrawIcon(checked);
+    }
+
+    /*** 获取文字色值 */
+    private @ColorInt int getTextColor(boolean checked) {
+        return mStyle.getTextColor(checked);
+    }
+
+    /*** 获取文字 */
+    private @Nullable String getText(boolean checked) {
+        return mStyle.getText(checked);
+    }
+}
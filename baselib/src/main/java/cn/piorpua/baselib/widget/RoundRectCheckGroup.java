@@ -0,0 +1,314 @@
+package cn.piorpua.baselib.widget;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckButton} 分组选择管理</p>
+ *
+ * 1. 选择状态以位图(long[])保存, 与按钮是否存在无关, 查询与切换均为 O(1);<br>
+ * 2. 支持 单选({@link Mode#SINGLE}), 多选({@link Mode#MULTIPLE}), 最多选 N 个({@link Mode#LIMITED});<br>
+ * 3. 状态变化时只推送给受影响且已绑定的按钮({@link RoundRectCheckButton#setChecked(boolean)}),
+ *    并只回调发生变化的位置;<br>
+ * 4. 列表复用时以 {@link RoundRectCheckGroup#bind(int, RoundRectCheckButton)} 重新绑定即可, 按钮原有的绑定自动解除;<br>
+ *
+ * 分组持有已绑定按钮的引用, 页面销毁时调用 {@link RoundRectCheckGroup#unbindAll()}。
+ * 点击事件由调用方处理, 在回调中调用 {@link RoundRectCheckGroup#toggle(int)}。仅在主线程使用。
+ */
+@MainThread
+public final class RoundRectCheckGroup {
+
+    /*** 选择模式 */
+    public enum Mode {
+
+        /*** 单选: 选定新位置时取消原选定位置 */
+        SINGLE,
+        /*** 多选: 不限数量 */
+        MULTIPLE,
+        /*** 最多选 N 个: 已满时拒绝新的选定 */
+        LIMITED
+    }
+
+    /*** 选定状态变化回调, 每个发生变化的位置回调一次 */
+    public interface OnCheckedChangeListener {
+
+        void onCheckedChanged(@NonNull RoundRectCheckGroup group, int position, boolean checked);
+    }
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final @NonNull Mode mMode;
+    private final int mMaxCount;
+
+    private int mSize;
+    private @NonNull long[] mWords;
+    private int mCheckedCount;
+
+    /*** 单选模式下当前选定位置 */
+    private int mSinglePosition = -1;
+
+    /*** 位置 -> 已绑定按钮 */
+    private @NonNull RoundRectCheckButton[] mButtons;
+
+    private @Nullable OnCheckedChangeListener mListener;
+
+    /***
+     * @param size 位置数量
+     * @param mode {@link Mode#SINGLE} 或 {@link Mode#MULTIPLE}
+     */
+    public RoundRectCheckGroup(int size, @NonNull Mode mode) {
+        this(size, mode, Mode.SINGLE == mode ? 1 : Integer.MAX_VALUE);
+    }
+
+    /***
+     * @param size 位置数量
+     * @param maxCount 最多选定数量({@link Mode#LIMITED})
+     */
+    public RoundRectCheckGroup(int size, int maxCount) {
+        this(size, Mode.LIMITED, maxCount);
+    }
+
+    private RoundRectCheckGroup(int size, @NonNull Mode mode, int maxCount) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be positive: " + maxCount);
+        }
+
+        mMode = mode;
+        mMaxCount = maxCount;
+        mSize = size;
+        mWords = new long[wordCount(size)];
+        mButtons = new RoundRectCheckButton[size];
+    }
+
+    public @NonNull Mode getMode() {
+        return mMode;
+    }
+
+    public int getMaxCount() {
+        return mMaxCount;
+    }
+
+    public int getSize() {
+        return mSize;
+    }
+
+    public void setOnCheckedChangeListener(@Nullable OnCheckedChangeListener listener) {
+        mListener = listener;
+    }
+
+    /***
+     * 修改位置数量. 缩小时超出范围的位置取消选定(不回调)并解除绑定
+     */
+    public void setSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        if (size == mSize) {
+            return;
+        }
+
+        if (size < mSize) {
+            for (int i = nextChecked(size); i >= 0; i = nextChecked(i + 1)) {
+                clearBit(i);
+            }
+            for (int i = size; i < mSize; ++i) {
+                unbind(i);
+            }
+        }
+
+        long[] words = new long[wordCount(size)];
+        System.arraycopy(mWords, 0, words, 0, Math.min(words.length, mWords.length));
+        mWords = words;
+
+        RoundRectCheckButton[] buttons = new RoundRectCheckButton[size];
+        System.arraycopy(mButtons, 0, buttons, 0, Math.min(size, mSize));
+        mButtons = buttons;
+
+        mSize = size;
+    }
+
+    public boolean isChecked(int position) {
+        checkPosition(position);
+        return (mWords[position >> ADDRESS_BITS_PER_WORD] & (1L << position)) != 0;
+    }
+
+    public int getCheckedCount() {
+        return mCheckedCount;
+    }
+
+    /***
+     * 从 from(含) 开始的下一个选定位置, 用于无分配遍历:
+     * for (int i = group.nextChecked(0); i >= 0; i = group.nextChecked(i + 1))
+     * @return -1 if none
+     */
+    public int nextChecked(int from) {
+        if (from < 0) {
+            throw new IllegalArgumentException("from must not be negative: " + from);
+        }
+        if (from >= mSize) {
+            return -1;
+        }
+
+        int index = from >> ADDRESS_BITS_PER_WORD;
+        long word = mWords[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int position = (index << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                return position < mSize ? position : -1;
+            }
+            if (++index >= mWords.length) {
+                return -1;
+            }
+            word = mWords[index];
+        }
+    }
+
+    /***
+     * 切换选定状态
+     * @return 状态是否发生变化 ({@link Mode#LIMITED} 已满时拒绝选定)
+     */
+    public boolean toggle(int position) {
+        return setChecked(position, !isChecked(position));
+    }
+
+    /***
+     * 设置选定状态
+     * @return 状态是否发生变化 ({@link Mode#LIMITED} 已满时拒绝选定)
+     */
+    public boolean setChecked(int position, boolean checked) {
+        if (isChecked(position) == checked) {
+            return false;
+        }
+
+        if (!checked) {
+            clearBit(position);
+            dispatch(position, false);
+            return true;
+        }
+
+        if (Mode.SINGLE == mMode) {
+            int previous = mSinglePosition;
+            setBit(position);
+            if (previous >= 0) {
+                clearBit(previous);
+                dispatch(previous, false);
+            }
+            dispatch(position, true);
+            return true;
+        }
+
+        if (mCheckedCount >= mMaxCount) {
+            return false;
+        }
+        setBit(position);
+        dispatch(position, true);
+        return true;
+    }
+
+    /*** 取消所有选定 */
+    public void clearChecked() {
+        for (int i = nextChecked(0); i >= 0; i = nextChecked(i + 1)) {
+            clearBit(i);
+            dispatch(i, false);
+        }
+    }
+
+    /***
+     * 绑定按钮到指定位置, 并同步选定状态(不回调).
+     * 该位置原有的按钮, 以及该按钮原有的位置均解除绑定
+     */
+    public void bind(int position, @NonNull RoundRectCheckButton button) {
+        checkPosition(position);
+
+        if (button.mGroup != null) {
+            button.mGroup.unbind(button);
+        }
+        unbind(position);
+
+        mButtons[position] = button;
+        button.mGroup = this;
+        button.mGroupPosition = position;
+        button.setChecked(isChecked(position));
+    }
+
+    /*** 解除按钮的绑定 */
+    public void unbind(@NonNull RoundRectCheckButton button) {
+        if (button.mGroup != this) {
+            return;
+        }
+        unbind(button.mGroupPosition);
+    }
+
+    /*** 解除所有绑定 */
+    public void unbindAll() {
+        for (int i = 0; i < mSize; ++i) {
+            unbind(i);
+        }
+    }
+
+    /***
+     * 获取指定位置已绑定的按钮
+     * @return NULL if not bound
+     */
+    public @Nullable RoundRectCheckButton getButton(int position) {
+        checkPosition(position);
+        return mButtons[position];
+    }
+
+    private void unbind(int position) {
+        RoundRectCheckButton button = mButtons[position];
+        if (button == null) {
+            return;
+        }
+
+        mButtons[position] = null;
+        button.mGroup = null;
+        button.mGroupPosition = -1;
+    }
+
+    private void setBit(int position) {
+        mWords[position >> ADDRESS_BITS_PER_WORD] |= 1L << position;
+        ++mCheckedCount;
+        if (Mode.SINGLE == mMode) {
+            mSinglePosition = position;
+        }
+    }
+
+    private void clearBit(int position) {
+        mWords[position >> ADDRESS_BITS_PER_WORD] &= ~(1L << position);
+        --mCheckedCount;
+        if (mSinglePosition == position) {
+            mSinglePosition = -1;
+        }
+    }
+
+    /*** 推送给已绑定按钮, 并回调 */
+    private void dispatch(int position, boolean checked) {
+        RoundRectCheckButton button = mButtons[position];
+        if (button != null) {
+            button.setChecked(checked);
+        }
+
+        if (mListener != null) {
+            mListener.onCheckedChanged(this, position, checked);
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IllegalArgumentException("position out of range: " + position + ", size: " + mSize);
+        }
+    }
+
+    private static int wordCount(int size) {
+        return (size + (1 << ADDRESS_BITS_PER_WORD) - 1) >> ADDRESS_BITS_PER_WORD;
+    }
+}
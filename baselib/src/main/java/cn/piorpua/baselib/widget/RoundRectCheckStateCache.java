@@ -0,0 +1,218 @@
+package cn.piorpua.baselib.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import cn.piorpua.baselib.component.MemoryPressureDispatcher;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckButton} 状态位图缓存</p>
+ *
+ * 1. 以完整的样式(尺寸, 状态, 颜色, 线宽, 图标及其尺寸与间距, 文字, 字号, 字体)为键, 共享已绘制的位图;<br>
+ * 2. 样式相同的按钮直接绘制位图, 不再逐个绘制路径, 文字与图标;<br>
+ * 3. 按字节数限制容量, 订阅 {@link MemoryPressureDispatcher}, 内存紧张时按比例释放最久未使用的位图;<br>
+ *
+ * 被淘汰的位图不主动 recycle (可能仍被硬件加速的显示列表引用)。仅在主线程使用。
+ */
+@MainThread
+final class RoundRectCheckStateCache implements MemoryPressureDispatcher.Trimmable {
+
+    /*** 样式键 */
+    static final class Key {
+
+        int mWidth;
+        int mHeight;
+        boolean mChecked;
+
+        boolean mRectFill;
+        int mRectStrokeWidth;
+        int mRectColor;
+
+        /*** 图标以 {@link Drawable.ConstantState} 标识 */
+        @Nullable Drawable.ConstantState mIcon;
+        @Nullable DrawIconGlyph mDrawIcon;
+        int mDrawIconStrokeWidth;
+        int mDrawIconColor;
+        int mIconWidth;
+        int mIconHeight;
+        /*** 图标宽度 + 图标与文字的间距, 决定文字位置 */
+        int mIconSpace;
+
+        @Nullable String mText;
+        float mTextSize;
+        int mTextColor;
+        @Nullable Typeface mTypeface;
+
+        /*** 释放对外部对象的引用 */
+        void clear() {
+            mIcon = null;
+            mDrawIcon = null;
+            mText = null;
+            mTypeface = null;
+        }
+
+        @NonNull Key copy() {
+            Key key = new Key();
+            key.mWidth = mWidth;
+            key.mHeight = mHeight;
+            key.mChecked = mChecked;
+            key.mRectFill = mRectFill;
+            key.mRectStrokeWidth = mRectStrokeWidth;
+            key.mRectColor = mRectColor;
+            key.mIcon = mIcon;
+            key.mDrawIcon = mDrawIcon;
+            key.mDrawIconStrokeWidth = mDrawIconStrokeWidth;
+            key.mDrawIconColor = mDrawIconColor;
+            key.mIconWidth = mIconWidth;
+            key.mIconHeight = mIconHeight;
+            key.mIconSpace = mIconSpace;
+            key.mText = mText;
+            key.mTextSize = mTextSize;
+            key.mTextColor = mTextColor;
+            key.mTypeface = mTypeface;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mWidth == key.mWidth &&
+                    mHeight == key.mHeight &&
+                    mChecked == key.mChecked &&
+                    mRectFill == key.mRectFill &&
+                    mRectStrokeWidth == key.mRectStrokeWidth &&
+                    mRectColor == key.mRectColor &&
+                    mIcon == key.mIcon &&
+                    mDrawIcon == key.mDrawIcon &&
+                    mDrawIconStrokeWidth == key.mDrawIconStrokeWidth &&
+                    mDrawIconColor == key.mDrawIconColor &&
+                    mIconWidth == key.mIconWidth &&
+                    mIconHeight == key.mIconHeight &&
+                    mIconSpace == key.mIconSpace &&
+                    mTextSize == key.mTextSize &&
+                    mTextColor == key.mTextColor &&
+                    mTypeface == key.mTypeface &&
+                    TextUtils.equals(mText, key.mText);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mWidth;
+            result = 31 * result + mHeight;
+            result = 31 * result + (mChecked ? 1 : 0);
+            result = 31 * result + (mRectFill ? 1 : 0);
+            result = 31 * result + mRectStrokeWidth;
+            result = 31 * result + mRectColor;
+            result = 31 * result + (mIcon == null ? 0 : System.identityHashCode(mIcon));
+            result = 31 * result + (mDrawIcon == null ? 0 : System.identityHashCode(mDrawIcon));
+            result = 31 * result + mDrawIconStrokeWidth;
+            result = 31 * result + mDrawIconColor;
+            result = 31 * result + mIconWidth;
+            result = 31 * result + mIconHeight;
+            result = 31 * result + mIconSpace;
+            result = 31 * result + (mText == null ? 0 : mText.hashCode());
+            result = 31 * result + Float.floatToIntBits(mTextSize);
+            result = 31 * result + mTextColor;
+            result = 31 * result + (mTypeface == null ? 0 : System.identityHashCode(mTypeface));
+            return result;
+        }
+    }
+
+    /*** 默认容量(字节) */
+    private static final int DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+
+    /*** 单个位图最多占用容量的比例 */
+    private static final int MAX_ENTRY_DIVISOR = 8;
+
+    private static RoundRectCheckStateCache sIns;
+
+    static @NonNull RoundRectCheckStateCache getInstance() {
+        if (sIns == null) {
+            sIns = new RoundRectCheckStateCache(DEFAULT_MAX_BYTES);
+            MemoryPressureDispatcher.getInstance().register(sIns);
+        }
+        return sIns;
+    }
+
+    private final int mMaxBytes;
+    private final @NonNull LruCache<Key, Bitmap> mBitmaps;
+
+    /*** 查找用的键 */
+    private final @NonNull Key mProbeKey = new Key();
+
+    private RoundRectCheckStateCache(int maxBytes) {
+        mMaxBytes = maxBytes;
+        mBitmaps = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /*** 查找用的键, 填充后调用 {@link RoundRectCheckStateCache#get()} */
+    @NonNull Key probe() {
+        return mProbeKey;
+    }
+
+    /***
+     * 以查找键获取位图, 命中时清空查找键
+     * @return NULL if not cached
+     */
+    @Nullable Bitmap get() {
+        Bitmap bitmap = mBitmaps.get(mProbeKey);
+        if (bitmap != null) {
+            mProbeKey.clear();
+        }
+        // 未命中时保留查找键, 供 put 使用
+        return bitmap;
+    }
+
+    /*** 以查找键缓存位图, 并清空查找键 */
+    void put(@NonNull Bitmap bitmap) {
+        mBitmaps.put(mProbeKey.copy(), bitmap);
+        mProbeKey.clear();
+    }
+
+    /*** 该尺寸是否适合缓存 */
+    boolean accepts(int width, int height) {
+        return width > 0 && height > 0 &&
+                (long) width * height * 4L <= mMaxBytes / MAX_ENTRY_DIVISOR;
+    }
+
+    @Override
+    public void onTrimMemory(float fraction, int level) {
+        if (fraction >= 1.0f) {
+            mBitmaps.evictAll();
+            return;
+        }
+        trimToSize((int) (mBitmaps.size() * (1.0f - fraction)));
+    }
+
+    /*** {@link LruCache#trimToSize(int)} 在 API 17 才公开, 按最久未使用的顺序逐个移除 */
+    private void trimToSize(int maxBytes) {
+        // snapshot 按访问顺序排列, 最久未使用的在前
+        for (Key key : mBitmaps.snapshot().keySet()) {
+            if (mBitmaps.size() <= maxBytes) {
+                break;
+            }
+            mBitmaps.remove(key);
+        }
+    }
+}
@@ -0,0 +1,902 @@
+package cn.piorpua.baselib.widget;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import cn.piorpua.baselib.R;
+import cn.piorpua.baselib.helper.UserInterfaceHelper;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckButton} 样式</p>
+ *
+ * 1. 不可变, 按值驻留(intern): 相同样式的按钮共享同一对象;<br>
+ * 2. 只引用 style 资源(无内联属性)的按钮, 每个 style 资源在每个 Theme 下只解析一次 TypedArray;<br>
+ * 3. 持有共享的画笔与测量结果(文字宽高, 图标大小, 各状态内容大小与期望尺寸);<br>
+ * 4. 修改样式时通过 {@link RoundRectCheckStyle#buildUpon()} 生成新样式(写时复制);<br>
+ *
+ * checkable, checked, stateCache, checkTransition, checkTransitionDuration 为按钮的初始值, 仅在构造按钮时读取。
+ * 状态相关的值以 {@link RoundRectCheckStyle#stateIndex(boolean)} 为下标: 0 未选定, 1 选定。
+ */
+public final class RoundRectCheckStyle {
+
+    /*** 默认最小高度(px) */
+    static final int DEFAULT_MINIMUM_HEIGHT = 68;
+    /*** 默认是否可选 */
+    static final boolean DEFAULT_CHECKABLE = true;
+    /*** 默认 未选定/选定 状态 */
+    static final boolean DEFAULT_CHECKED = false;
+
+    /*** 默认图标文字间距(px) */
+    static final int DEFAULT_ICON_PADDING = 8;
+    /*** 默认水平方向间距(px) */
+    static final int DEFAULT_HORIZONTAL_PADDING = 0;
+    /*** 默认垂直方向间距(px) */
+    static final int DEFAULT_VERTICAL_PADDING = 0;
+
+    /*** 默认矩形线宽(px) */
+    static final int DEFAULT_RECT_STROKE_WIDTH = 2;
+    /*** 默认矩形是否填充 */
+    static final boolean DEFAULT_RECT_FILL = false;
+
+    /*** 默认绘制图标大小与文字高度的比例 */
+    static final float DEFAULT_DRAWICON_PERCENT = 0.8f;
+    /*** 默认绘制图标大小(px), 0 表示按文字高度的比例 */
+    static final int DEFAULT_DRAWICON_SIZE = 0;
+
+    /*** 默认绘制图标线宽(px) */
+    static final int DEFAULT_DRAWICON_STROKE_WIDTH = 3;
+
+    /*** 默认是否使用状态位图缓存 */
+    static final boolean DEFAULT_STATE_CACHE = false;
+
+    /*** 默认是否播放状态切换动画 */
+    static final boolean DEFAULT_CHECK_TRANSITION = false;
+    /*** 默认状态切换动画时长(ms) */
+    static final int DEFAULT_CHECK_TRANSITION_DURATION = 200;
+
+    /*** 样式构造器 */
+    public static final class Builder {
+
+        private int mMinimumHeight = DEFAULT_MINIMUM_HEIGHT;
+        private boolean mCheckable = DEFAULT_CHECKABLE;
+        private boolean mChecked = DEFAULT_CHECKED;
+
+        private int mIconPadding = DEFAULT_ICON_PADDING;
+        private int mHorizontalPadding = DEFAULT_HORIZONTAL_PADDING;
+        private int mVerticalPadding = DEFAULT_VERTICAL_PADDING;
+
+        private boolean mRectFill = DEFAULT_RECT_FILL;
+        private int mRectStrokeWidth = DEFAULT_RECT_STROKE_WIDTH;
+        private final int[] mRectColor = new int[2];
+
+        private final Drawable[] mIcon = new Drawable[2];
+
+        private int mDrawIconStrokeWidth = DEFAULT_DRAWICON_STROKE_WIDTH;
+        private int mDrawIconSize = DEFAULT_DRAWICON_SIZE;
+        private final DrawIconGlyph[] mDrawIcon = new DrawIconGlyph[2];
+        private final int[] mDrawIconColor = new int[2];
+
+        private int mTextSize;
+        private final int[] mTextColor = new int[2];
+        private final String[] mText = new String[2];
+
+        private boolean mStateCache = DEFAULT_STATE_CACHE;
+        private boolean mCheckTransition = DEFAULT_CHECK_TRANSITION;
+        private int mCheckTransitionDuration = DEFAULT_CHECK_TRANSITION_DURATION;
+
+        /*** 构造来源, 画笔配置相同时复用其画笔 */
+        private @Nullable RoundRectCheckStyle mSource;
+
+        public Builder() {}
+
+        private Builder(@NonNull RoundRectCheckStyle style) {
+            mSource = style;
+
+            mMinimumHeight = style.mMinimumHeight;
+            mCheckable = style.mCheckable;
+            mChecked = style.mChecked;
+            mIconPadding = style.mIconPadding;
+            mHorizontalPadding = style.mHorizontalPadding;
+            mVerticalPadding = style.mVerticalPadding;
+            mRectFill = style.mRectFill;
+            mRectStrokeWidth = style.mRectStrokeWidth;
+            mDrawIconStrokeWidth = style.mDrawIconStrokeWidth;
+            mDrawIconSize = style.mDrawIconSize;
+            mTextSize = style.mTextSize;
+            mStateCache = style.mStateCache;
+            mCheckTransition = style.mCheckTransition;
+            mCheckTransitionDuration = style.mCheckTransitionDuration;
+
+            System.arraycopy(style.mRectColor, 0, mRectColor, 0, 2);
+            System.arraycopy(style.mIcon, 0, mIcon, 0, 2);
+            System.arraycopy(style.mDrawIcon, 0, mDrawIcon, 0, 2);
+            System.arraycopy(style.mDrawIconColor, 0, mDrawIconColor, 0, 2);
+            System.arraycopy(style.mTextColor, 0, mTextColor, 0, 2);
+            System.arraycopy(style.mText, 0, mText, 0, 2);
+        }
+
+        /*** 从 TypedArray 解析, 规则见 {@link RoundRectCheckButton} 的 XML 说明 */
+        private Builder(@NonNull TypedArray a) {
+            mMinimumHeight = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_minimumHeight, DEFAULT_MINIMUM_HEIGHT);
+            mCheckable = a.getBoolean(R.styleable.RoundRectCheckButton_checkable, DEFAULT_CHECKABLE);
+            mChecked = a.getBoolean(R.styleable.RoundRectCheckButton_checked, DEFAULT_CHECKED);
+
+            mIconPadding = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_iconPadding, DEFAULT_ICON_PADDING);
+            mHorizontalPadding = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_horizontalPadding, DEFAULT_HORIZONTAL_PADDING);
+            mVerticalPadding = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_verticalPadding, DEFAULT_VERTICAL_PADDING);
+
+            int colorUnCheck = a.getColor(
+                    R.styleable.RoundRectCheckButton_colorUnCheck, Color.TRANSPARENT);
+            int colorCheck = a.getColor(
+                    R.styleable.RoundRectCheckButton_colorCheck, Color.TRANSPARENT);
+
+            mRectStrokeWidth = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_rectStrokeWidth, DEFAULT_RECT_STROKE_WIDTH);
+            mRectFill = a.getBoolean(R.styleable.RoundRectCheckButton_rectFill, DEFAULT_RECT_FILL);
+            if (a.hasValue(R.styleable.RoundRectCheckButton_rectColor)) {
+                mRectColor[0] = mRectColor[1] = a.getColor(
+                        R.styleable.RoundRectCheckButton_rectColor, Color.TRANSPARENT);
+            } else {
+                mRectColor[0] = a.getColor(
+                        R.styleable.RoundRectCheckButton_rectColorUnCheck, colorUnCheck);
+                mRectColor[1] = a.getColor(
+                        R.styleable.RoundRectCheckButton_rectColorCheck, colorCheck);
+            }
+
+            if (a.hasValue(R.styleable.RoundRectCheckButton_icon)) {
+                mIcon[0] = mIcon[1] = a.getDrawable(R.styleable.RoundRectCheckButton_icon);
+            } else {
+                mIcon[0] = a.getDrawable(R.styleable.RoundRectCheckButton_iconUnCheck);
+                mIcon[1] = a.getDrawable(R.styleable.RoundRectCheckButton_iconCheck);
+            }
+
+            mDrawIconStrokeWidth = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_drawIconStrokeWidth,
+                    DEFAULT_DRAWICON_STROKE_WIDTH);
+            mDrawIconSize = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_drawIconSize, DEFAULT_DRAWICON_SIZE);
+
+            mDrawIcon[0] = DrawIconGlyph.get(a.getInt(
+                    R.styleable.RoundRectCheckButton_drawIconUnCheck,
+                    RoundRectCheckButton.DrawIcon.UNKNOWN.getID()));
+            mDrawIconColor[0] = a.getColor(
+                    R.styleable.RoundRectCheckButton_drawIconColorUnCheck, colorUnCheck);
+
+            mDrawIcon[1] = DrawIconGlyph.get(a.getInt(
+                    R.styleable.RoundRectCheckButton_drawIconCheck,
+                    RoundRectCheckButton.DrawIcon.UNKNOWN.getID()));
+            mDrawIconColor[1] = a.getColor(
+                    R.styleable.RoundRectCheckButton_drawIconColorCheck, colorCheck);
+
+            mTextSize = a.getDimensionPixelSize(
+                    R.styleable.RoundRectCheckButton_textSize, 0);
+            if (a.hasValue(R.styleable.RoundRectCheckButton_textColor)) {
+                mTextColor[0] = mTextColor[1] = a.getColor(
+                        R.styleable.RoundRectCheckButton_textColor, Color.TRANSPARENT);
+            } else {
+                mTextColor[0] = a.getColor(
+                        R.styleable.RoundRectCheckButton_textColorUnCheck, colorUnCheck);
+                mTextColor[1] = a.getColor(
+                        R.styleable.RoundRectCheckButton_textColorCheck, colorCheck);
+            }
+            if (a.hasValue(R.styleable.RoundRectCheckButton_text)) {
+                mText[0] = mText[1] = a.getString(R.styleable.RoundRectCheckButton_text);
+            } else {
+                mText[0] = a.getString(R.styleable.RoundRectCheckButton_textUnCheck);
+                mText[1] = a.getString(R.styleable.RoundRectCheckButton_textCheck);
+            }
+
+            mStateCache = a.getBoolean(
+                    R.styleable.RoundRectCheckButton_stateCache, DEFAULT_STATE_CACHE);
+            mCheckTransition = a.getBoolean(
+                    R.styleable.RoundRectCheckButton_checkTransition, DEFAULT_CHECK_TRANSITION);
+            mCheckTransitionDuration = Math.max(0, a.getInt(
+                    R.styleable.RoundRectCheckButton_checkTransitionDuration,
+                    DEFAULT_CHECK_TRANSITION_DURATION));
+        }
+
+        public @NonNull Builder setMinimumHeight(int px) {
+            mMinimumHeight = px;
+            return this;
+        }
+
+        public @NonNull Builder setCheckable(boolean value) {
+            mCheckable = value;
+            return this;
+        }
+
+        public @NonNull Builder setChecked(boolean value) {
+            mChecked = value;
+            return this;
+        }
+
+        public @NonNull Builder setIconPadding(int px) {
+            mIconPadding = px;
+            return this;
+        }
+
+        public @NonNull Builder setHorizontalPadding(int px) {
+            mHorizontalPadding = px;
+            return this;
+        }
+
+        public @NonNull Builder setVerticalPadding(int px) {
+            mVerticalPadding = px;
+            return this;
+        }
+
+        public @NonNull Builder setRectFill(boolean value) {
+            mRectFill = value;
+            return this;
+        }
+
+        public @NonNull Builder setRectStrokeWidth(int px) {
+            mRectStrokeWidth = px;
+            return this;
+        }
+
+        public @NonNull Builder setRectColor(boolean checked, @ColorInt int color) {
+            mRectColor[stateIndex(checked)] = color;
+            return this;
+        }
+
+        public @NonNull Builder setIcon(boolean checked, @Nullable Drawable icon) {
+            mIcon[stateIndex(checked)] = icon;
+            return this;
+        }
+
+        public @NonNull Builder setDrawIconStrokeWidth(int px) {
+            mDrawIconStrokeWidth = px;
+            return this;
+        }
+
+        /*** 绘制图标大小, 0 表示按文字高度的比例 */
+        public @NonNull Builder setDrawIconSize(int px) {
+            mDrawIconSize = Math.max(0, px);
+            return this;
+        }
+
+        public @NonNull Builder setDrawIcon(boolean checked, @Nullable RoundRectCheckButton.DrawIcon icon) {
+            return setDrawIcon(checked, icon == null ? null : icon.getGlyph());
+        }
+
+        public @NonNull Builder setDrawIcon(boolean checked, @Nullable DrawIconGlyph icon) {
+            mDrawIcon[stateIndex(checked)] = icon;
+            return this;
+        }
+
+        public @NonNull Builder setDrawIconColor(boolean checked, @ColorInt int color) {
+            mDrawIconColor[stateIndex(checked)] = color;
+            return this;
+        }
+
+        public @NonNull Builder setTextSize(int px) {
+            mTextSize = px;
+            return this;
+        }
+
+        public @NonNull Builder setTextColor(boolean checked, @ColorInt int color) {
+            mTextColor[stateIndex(checked)] = color;
+            return this;
+        }
+
+        public @NonNull Builder setText(boolean checked, @Nullable String text) {
+            mText[stateIndex(checked)] = text;
+            return this;
+        }
+
+        /*** 全局(圆角矩形背景, 绘制图标, 文字)颜色 */
+        public @NonNull Builder setColor(boolean checked, @ColorInt int color) {
+            final int index = stateIndex(checked);
+            mRectColor[index] = color;
+            mDrawIconColor[index] = color;
+            mTextColor[index] = color;
+            return this;
+        }
+
+        public @NonNull Builder setStateCacheEnabled(boolean value) {
+            mStateCache = value;
+            return this;
+        }
+
+        public @NonNull Builder setCheckTransitionEnabled(boolean value) {
+            mCheckTransition = value;
+            return this;
+        }
+
+        public @NonNull Builder setCheckTransitionDuration(int duration) {
+            mCheckTransitionDuration = Math.max(0, duration);
+            return this;
+        }
+
+        /*** 生成(驻留的)样式 */
+        public @NonNull RoundRectCheckStyle build() {
+            return intern(new RoundRectCheckStyle(this));
+        }
+    }
+
+    // 驻留表 >>>
+
+    private static final WeakHashMap<RoundRectCheckStyle, WeakReference<RoundRectCheckStyle>> sInterned =
+            new WeakHashMap<RoundRectCheckStyle, WeakReference<RoundRectCheckStyle>>();
+
+    /*** style 资源解析结果: Theme -> style 资源 ID -> 样式 */
+    private static final WeakHashMap<Resources.Theme, SparseArray<RoundRectCheckStyle>> sResourceStyles =
+            new WeakHashMap<Resources.Theme, SparseArray<RoundRectCheckStyle>>();
+
+    private static synchronized @NonNull RoundRectCheckStyle intern(@NonNull RoundRectCheckStyle style) {
+        WeakReference<RoundRectCheckStyle> reference = sInterned.get(style);
+        RoundRectCheckStyle interned = reference == null ? null : reference.get();
+        if (interned != null) {
+            return interned;
+        }
+
+        sInterned.put(style, new WeakReference<RoundRectCheckStyle>(style));
+        return style;
+    }
+
+    // <<< 驻留表
+
+    /***
+     * 解析 XML 中的样式<br>
+     * 若 attrs 中除 checked 外没有内联的 RoundRectCheckButton 属性, 则同一 Theme 下每个 style 资源只解析一次
+     */
+    public static @NonNull RoundRectCheckStyle obtain(@NonNull Context context, @Nullable AttributeSet attrs) {
+        final boolean cacheable = !hasInlineAttributes(attrs);
+        final int styleRes = attrs == null ? 0 : attrs.getStyleAttribute();
+        final Resources.Theme theme = context.getTheme();
+
+        if (cacheable && theme != null) {
+            synchronized (RoundRectCheckStyle.class) {
+                SparseArray<RoundRectCheckStyle> styles = sResourceStyles.get(theme);
+                RoundRectCheckStyle style = styles == null ? null : styles.get(styleRes);
+                if (style != null) {
+                    return style;
+                }
+            }
+        }
+
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.RoundRectCheckButton);
+        RoundRectCheckStyle style = new Builder(a).build();
+        a.recycle();
+
+        if (cacheable && theme != null) {
+            synchronized (RoundRectCheckStyle.class) {
+                SparseArray<RoundRectCheckStyle> styles = sResourceStyles.get(theme);
+                if (styles == null) {
+                    styles = new SparseArray<RoundRectCheckStyle>();
+                    sResourceStyles.put(theme, styles);
+                }
+                styles.put(styleRes, style);
+            }
+        }
+        return style;
+    }
+
+    /***
+     * 以 style 资源(RoundRectCheckButton 的属性)获取样式, 与 XML 中 style="@style/xxx" 共享缓存
+     */
+    public static @NonNull RoundRectCheckStyle obtain(@NonNull Context context, @StyleRes int styleRes) {
+        final Resources.Theme theme = context.getTheme();
+
+        if (theme != null) {
+            synchronized (RoundRectCheckStyle.class) {
+                SparseArray<RoundRectCheckStyle> styles = sResourceStyles.get(theme);
+                RoundRectCheckStyle style = styles == null ? null : styles.get(styleRes);
+                if (style != null) {
+                    return style;
+                }
+            }
+        }
+
+        TypedArray a = context.obtainStyledAttributes(styleRes, R.styleable.RoundRectCheckButton);
+        RoundRectCheckStyle style = new Builder(a).build();
+        a.recycle();
+
+        if (theme != null) {
+            synchronized (RoundRectCheckStyle.class) {
+                SparseArray<RoundRectCheckStyle> styles = sResourceStyles.get(theme);
+                if (styles == null) {
+                    styles = new SparseArray<RoundRectCheckStyle>();
+                    sResourceStyles.put(theme, styles);
+                }
+                styles.put(styleRes, style);
+            }
+        }
+        return style;
+    }
+
+    /*** 获取内联的 checked 属性, 未定义时返回 defValue */
+    static boolean getInlineChecked(@NonNull Context context,
+                                    @Nullable AttributeSet attrs, boolean defValue) {
+        if (attrs == null) {
+            return defValue;
+        }
+
+        final int checkedAttr = R.styleable.RoundRectCheckButton[R.styleable.RoundRectCheckButton_checked];
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; ++i) {
+            if (attrs.getAttributeNameResource(i) != checkedAttr) {
+                continue;
+            }
+
+            int resId = attrs.getAttributeResourceValue(i, 0);
+            if (resId != 0) {
+                return context.getResources().getBoolean(resId);
+            }
+            return attrs.getAttributeBooleanValue(i, defValue);
+        }
+        return defValue;
+    }
+
+    /*** 是否包含内联的 RoundRectCheckButton 属性(checked 除外) */
+    private static boolean hasInlineAttributes(@Nullable AttributeSet attrs) {
+        if (attrs == null) {
+            return false;
+        }
+
+        final int[] styleable = R.styleable.RoundRectCheckButton;
+        final int checkedAttr = styleable[R.styleable.RoundRectCheckButton_checked];
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; ++i) {
+            int attr = attrs.getAttributeNameResource(i);
+            if (attr == 0 || attr == checkedAttr) {
+                continue;
+            }
+            for (int styleableAttr : styleable) {
+                if (styleableAttr == attr) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static int stateIndex(boolean checked) {
+        return checked ? 1 : 0;
+    }
+
+    private final int mMinimumHeight;
+    private final boolean mCheckable;
+    private final boolean mChecked;
+
+    private final int mIconPadding;
+    private final int mHorizontalPadding;
+    private final int mVerticalPadding;
+
+    private final boolean mRectFill;
+    private final int mRectStrokeWidth;
+    private final int[] mRectColor = new int[2];
+
+    private final Drawable[] mIcon = new Drawable[2];
+
+    private final int mDrawIconStrokeWidth;
+    private final int mDrawIconSize;
+    private final DrawIconGlyph[] mDrawIcon = new DrawIconGlyph[2];
+    private final int[] mDrawIconColor = new int[2];
+
+    private final int mTextSize;
+    private final int[] mTextColor = new int[2];
+    private final String[] mText = new String[2];
+
+    private final boolean mStateCache;
+    private final boolean mCheckTransition;
+    private final int mCheckTransitionDuration;
+
+    private final int mHashCode;
+
+    // 共享画笔: 仅在主线程绘制时修改颜色 >>>
+
+    private final @NonNull Paint mRectPaint;
+    private final @NonNull Paint mIconPaint;
+    private final @NonNull Paint mTextPaint;
+
+    // <<< 共享画笔
+
+    // 测量结果, 首次使用时计算 >>>
+
+    private volatile boolean mMetricsReady;
+    private float mTextHeight;
+    /*** 文字基线相对于垂直中心的偏移 */
+    private float mTextBaselineOffset;
+    private final float[] mTextWidth = new float[2];
+    private final int[] mIconWidth = new int[2];
+    private final int[] mIconHeight = new int[2];
+    private final int[] mIconSpace = new int[2];
+    /*** 各状态内容大小: 不含最小高度与两端半圆 */
+    private final int[] mContentWidth = new int[2];
+    private final int[] mContentHeight = new int[2];
+    /*** 期望尺寸(两种状态的最大值) */
+    private int mDesiredWidth;
+    private int mDesiredHeight;
+
+    // <<< 测量结果
+
+    private RoundRectCheckStyle(@NonNull Builder builder) {
+        mMinimumHeight = builder.mMinimumHeight;
+        mCheckable = builder.mCheckable;
+        mChecked = builder.mChecked;
+        mIconPadding = builder.mIconPadding;
+        mHorizontalPadding = builder.mHorizontalPadding;
+        mVerticalPadding = builder.mVerticalPadding;
+        mRectFill = builder.mRectFill;
+        mRectStrokeWidth = builder.mRectStrokeWidth;
+        mDrawIconStrokeWidth = builder.mDrawIconStrokeWidth;
+        mDrawIconSize = builder.mDrawIconSize;
+        mTextSize = builder.mTextSize;
+        mStateCache = builder.mStateCache;
+        mCheckTransition = builder.mCheckTransition;
+        mCheckTransitionDuration = builder.mCheckTransitionDuration;
+
+        System.arraycopy(builder.mRectColor, 0, mRectColor, 0, 2);
+        System.arraycopy(builder.mIcon, 0, mIcon, 0, 2);
+        System.arraycopy(builder.mDrawIcon, 0, mDrawIcon, 0, 2);
+        System.arraycopy(builder.mDrawIconColor, 0, mDrawIconColor, 0, 2);
+        System.arraycopy(builder.mTextColor, 0, mTextColor, 0, 2);
+        System.arraycopy(builder.mText, 0, mText, 0, 2);
+
+        RoundRectCheckStyle source = builder.mSource;
+
+        if (source != null && source.mRectFill == mRectFill &&
+                source.mRectStrokeWidth == mRectStrokeWidth) {
+            mRectPaint = source.mRectPaint;
+        } else {
+            mRectPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mRectPaint.setStyle(mRectFill ? Paint.Style.FILL : Paint.Style.STROKE);
+            mRectPaint.setStrokeWidth(mRectStrokeWidth);
+        }
+
+        if (source != null && source.mDrawIconStrokeWidth == mDrawIconStrokeWidth) {
+            mIconPaint = source.mIconPaint;
+        } else {
+            mIconPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mIconPaint.setStyle(Paint.Style.STROKE);
+            mIconPaint.setStrokeJoin(Paint.Join.ROUND);
+            mIconPaint.setStrokeWidth(mDrawIconStrokeWidth);
+        }
+
+        if (source != null && source.mTextSize == mTextSize) {
+            mTextPaint = source.mTextPaint;
+        } else {
+            mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mTextPaint.setTextSize(mTextSize);
+        }
+
+        mHashCode = computeHashCode();
+    }
+
+    /*** 以该样式为基础构造新样式 */
+    public @NonNull Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    public int getMinimumHeight() {
+        return mMinimumHeight;
+    }
+
+    public boolean isCheckable() {
+        return mCheckable;
+    }
+
+    public boolean isChecked() {
+        return mChecked;
+    }
+
+    public int getIconPadding() {
+        return mIconPadding;
+    }
+
+    public int getHorizontalPadding() {
+        return mHorizontalPadding;
+    }
+
+    public int getVerticalPadding() {
+        return mVerticalPadding;
+    }
+
+    public boolean isRectFill() {
+        return mRectFill;
+    }
+
+    public int getRectStrokeWidth() {
+        return mRectStrokeWidth;
+    }
+
+    public @ColorInt int getRectColor(boolean checked) {
+        return mRectColor[stateIndex(checked)];
+    }
+
+    public @Nullable Drawable getIcon(boolean checked) {
+        return mIcon[stateIndex(checked)];
+    }
+
+    public int getDrawIconStrokeWidth() {
+        return mDrawIconStrokeWidth;
+    }
+
+    public int getDrawIconSize() {
+        return mDrawIconSize;
+    }
+
+    public @Nullable DrawIconGlyph getDrawIcon(boolean checked) {
+        return mDrawIcon[stateIndex(checked)];
+    }
+
+    public @ColorInt int getDrawIconColor(boolean checked) {
+        return mDrawIconColor[stateIndex(checked)];
+    }
+
+    public int getTextSize() {
+        return mTextSize;
+    }
+
+    public @ColorInt int getTextColor(boolean checked) {
+        return mTextColor[stateIndex(checked)];
+    }
+
+    public @Nullable String getText(boolean checked) {
+        return mText[stateIndex(checked)];
+    }
+
+    public boolean isStateCacheEnabled() {
+        return mStateCache;
+    }
+
+    public boolean isCheckTransitionEnabled() {
+        return mCheckTransition;
+    }
+
+    public int getCheckTransitionDuration() {
+        return mCheckTransitionDuration;
+    }
+
+    @NonNull Paint getRectPaint() {
+        return mRectPaint;
+    }
+
+    @NonNull Paint getIconPaint() {
+        return mIconPaint;
+    }
+
+    @NonNull Paint getTextPaint() {
+        return mTextPaint;
+    }
+
+    /*** 是否有图标(图片图标或绘制图标) */
+    boolean hasIcon(boolean checked) {
+        return getIcon(checked) != null || getDrawIcon(checked) != null;
+    }
+
+    /*** 文字高度: descent - ascent + leading */
+    float getTextHeight() {
+        ensureMetrics();
+        return mTextHeight;
+    }
+
+    /*** 文字垂直居中时, 基线相对于垂直中心的偏移 */
+    float getTextBaselineOffset() {
+        ensureMetrics();
+        return mTextBaselineOffset;
+    }
+
+    float getTextWidth(boolean checked) {
+        ensureMetrics();
+        return mTextWidth[stateIndex(checked)];
+    }
+
+    int getIconWidth(boolean checked) {
+        ensureMetrics();
+        return mIconWidth[stateIndex(checked)];
+    }
+
+    int getIconHeight(boolean checked) {
+        ensureMetrics();
+        return mIconHeight[stateIndex(checked)];
+    }
+
+    /*** 图标宽度 + 图标与文字的间距(同时有图标与文字时) */
+    int getIconSpace(boolean checked) {
+        ensureMetrics();
+        return mIconSpace[stateIndex(checked)];
+    }
+
+    /*** 内容宽度: 图标宽度 + 图标文字间距 + 文字宽度 + 水平方向间距 */
+    int getContentWidth(boolean checked) {
+        ensureMetrics();
+        return mContentWidth[stateIndex(checked)];
+    }
+
+    /*** 内容高度: 图标高度与文字高度的最大值 + 垂直方向间距 */
+    int getContentHeight(boolean checked) {
+        ensureMetrics();
+        return mContentHeight[stateIndex(checked)];
+    }
+
+    /*** 期望宽度(未受 MeasureSpec 约束) */
+    int getDesiredWidth() {
+        ensureMetrics();
+        return mDesiredWidth;
+    }
+
+    /*** 期望高度(未受 MeasureSpec 约束) */
+    int getDesiredHeight() {
+        ensureMetrics();
+        return mDesiredHeight;
+    }
+
+    /*** 与 style 的期望尺寸是否相同, 相同时切换样式无需重新布局 */
+    boolean isSizeEqual(@NonNull RoundRectCheckStyle style) {
+        return getDesiredWidth() == style.getDesiredWidth() &&
+                getDesiredHeight() == style.getDesiredHeight();
+    }
+
+    /*** 与 style 的绘制几何(背景路径, 图标位置, 文字位置)是否相同, 相同时切换样式只需重绘 */
+    boolean isGeometryEqual(@NonNull RoundRectCheckStyle style) {
+        if (this == style) {
+            return true;
+        }
+
+        ensureMetrics();
+        style.ensureMetrics();
+
+        if (mRectStrokeWidth != style.mRectStrokeWidth ||
+                mTextBaselineOffset != style.mTextBaselineOffset) {
+            return false;
+        }
+        for (int i = 0; i < 2; ++i) {
+            if ((mIcon[i] == null) != (style.mIcon[i] == null) ||
+                    mIconWidth[i] != style.mIconWidth[i] ||
+                    mIconHeight[i] != style.mIconHeight[i] ||
+                    mIconSpace[i] != style.mIconSpace[i] ||
+                    mTextWidth[i] != style.mTextWidth[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureMetrics() {
+        if (mMetricsReady) {
+            return;
+        }
+
+        Paint.FontMetrics metrics = new Paint.FontMetrics();
+        mTextHeight = UserInterfaceHelper.getFontMetrics(mTextPaint, metrics);
+        mTextBaselineOffset = -metrics.descent + (metrics.descent - metrics.ascent) / 2.0f;
+
+        for (int index = 0; index < 2; ++index) {
+            final boolean checked = index == 1;
+
+            Drawable icon = mIcon[index];
+            if (icon != null) {
+                mIconWidth[index] = icon.getIntrinsicWidth();
+                mIconHeight[index] = icon.getIntrinsicHeight();
+            } else if (hasIcon(checked)) {
+                mIconWidth[index] = mIconHeight[index] = mDrawIconSize > 0 ?
+                        mDrawIconSize : (int) (mTextHeight * DEFAULT_DRAWICON_PERCENT);
+            } else {
+                mIconWidth[index] = mIconHeight[index] = 0;
+            }
+
+            String text = mText[index];
+            mTextWidth[index] = UserInterfaceHelper.measureTextWidth(mTextPaint, text);
+            mIconSpace[index] = mIconWidth[index] +
+                    (!TextUtils.isEmpty(text) && hasIcon(checked) ? mIconPadding : 0);
+
+            mContentHeight[index] = mVerticalPadding + Math.max((int) mTextHeight, mIconHeight[index]);
+            mContentWidth[index] = (int) (mHorizontalPadding + mIconSpace[index] + mTextWidth[index]);
+        }
+
+        // 高度: [图标高度 与 文字高度 最大值] + [垂直方向间距], 不小于最小高度
+        // 宽度: [图标宽度] + [文字宽度] + [图标文字间距(如果同时有图标、文字)] + [水平方向间距] + [高度(两个半圆)]
+        mDesiredHeight = Math.max(Math.max(mContentHeight[0], mContentHeight[1]), mMinimumHeight);
+        mDesiredWidth = Math.max(
+                (int) (mHorizontalPadding + mDesiredHeight + mIconSpace[0] + mTextWidth[0]),
+                (int) (mHorizontalPadding + mDesiredHeight + mIconSpace[1] + mTextWidth[1]));
+
+        mMetricsReady = true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoundRectCheckStyle)) {
+            return false;
+        }
+
+        RoundRectCheckStyle style = (RoundRectCheckStyle) o;
+        if (mHashCode != style.mHashCode ||
+                mMinimumHeight != style.mMinimumHeight ||
+                mCheckable != style.mCheckable ||
+                mChecked != style.mChecked ||
+                mIconPadding != style.mIconPadding ||
+                mHorizontalPadding != style.mHorizontalPadding ||
+                mVerticalPadding != style.mVerticalPadding ||
+                mRectFill != style.mRectFill ||
+                mRectStrokeWidth != style.mRectStrokeWidth ||
+                mDrawIconStrokeWidth != style.mDrawIconStrokeWidth ||
+                mDrawIconSize != style.mDrawIconSize ||
+                mTextSize != style.mTextSize ||
+                mStateCache != style.mStateCache ||
+                mCheckTransition != style.mCheckTransition ||
+                mCheckTransitionDuration != style.mCheckTransitionDuration) {
+
+            return false;
+        }
+
+        for (int i = 0; i < 2; ++i) {
+            if (mRectColor[i] != style.mRectColor[i] ||
+                    iconIdentity(mIcon[i]) != iconIdentity(style.mIcon[i]) ||
+                    mDrawIcon[i] != style.mDrawIcon[i] ||
+                    mDrawIconColor[i] != style.mDrawIconColor[i] ||
+                    mTextColor[i] != style.mTextColor[i] ||
+                    !TextUtils.equals(mText[i], style.mText[i])) {
+
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    private int computeHashCode() {
+        int result = mMinimumHeight;
+        result = 31 * result + (mCheckable ? 1 : 0);
+        result = 31 * result + (mChecked ? 1 : 0);
+        result = 31 * result + mIconPadding;
+        result = 31 * result + mHorizontalPadding;
+        result = 31 * result + mVerticalPadding;
+        result = 31 * result + (mRectFill ? 1 : 0);
+        result = 31 * result + mRectStrokeWidth;
+        result = 31 * result + mDrawIconStrokeWidth;
+        result = 31 * result + mDrawIconSize;
+        result = 31 * result + mTextSize;
+        result = 31 * result + (mStateCache ? 1 : 0);
+        result = 31 * result + (mCheckTransition ? 1 : 0);
+        result = 31 * result + mCheckTransitionDuration;
+        for (int i = 0; i < 2; ++i) {
+            result = 31 * result + mRectColor[i];
+            result = 31 * result + System.identityHashCode(iconIdentity(mIcon[i]));
+            result = 31 * result + System.identityHashCode(mDrawIcon[i]);
+            result = 31 * result + mDrawIconColor[i];
+            result = 31 * result + mTextColor[i];
+            result = 31 * result + (mText[i] == null ? 0 : mText[i].hashCode());
+        }
+        return result;
+    }
+
+    /*** 同一资源加载的 Drawable 共享 {@link Drawable.ConstantState} */
+    static @Nullable Object iconIdentity(@Nullable Drawable icon) {
+        if (icon == null) {
+            return null;
+        }
+        Drawable.ConstantState state = icon.getConstantState();
+        return state != null ? state : icon;
+    }
+}
@@ -0,0 +1,95 @@
+package cn.piorpua.baselib.widget;
+
+import android.animation.ValueAnimator;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.view.animation.AnimationUtils;
+
+import java.util.ArrayList;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckButton} 状态切换动画驱动</p>
+ *
+ * 所有正在切换状态的按钮共用一个 {@link ValueAnimator}: 每帧按各自的开始时间与时长计算进度,
+ * 结束的按钮移出列表, 列表为空时停止动画。每帧不分配内存。仅在主线程使用。
+ */
+@MainThread
+final class RoundRectCheckTransition implements ValueAnimator.AnimatorUpdateListener {
+
+    /*** 帧回调 */
+    interface Target {
+
+        /***
+         * @param now {@link AnimationUtils#currentAnimationTimeMillis()}
+         * @return false 表示动画已结束
+         */
+        boolean onTransitionFrame(long now);
+    }
+
+    /*** 驱动动画的时长, 以 INFINITE 重复, 实际进度由各按钮自行计算 */
+    private static final long DRIVER_DURATION = 1000L;
+
+    private static RoundRectCheckTransition sIns;
+
+    static @NonNull RoundRectCheckTransition getInstance() {
+        if (sIns == null) {
+            sIns = new RoundRectCheckTransition();
+        }
+        return sIns;
+    }
+
+    static long now() {
+        return AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    private final @NonNull ArrayList<Target> mTargets = new ArrayList<Target>();
+    private ValueAnimator mAnimator;
+
+    private RoundRectCheckTransition() {}
+
+    void start(@NonNull Target target) {
+        if (!mTargets.contains(target)) {
+            mTargets.add(target);
+        }
+
+        if (mAnimator == null) {
+            mAnimator = ValueAnimator.ofFloat(0.0f, 1.0f);
+            mAnimator.setDuration(DRIVER_DURATION);
+            mAnimator.setRepeatCount(ValueAnimator.INFINITE);
+            mAnimator.addUpdateListener(this);
+        }
+        if (!mAnimator.isStarted()) {
+            mAnimator.start();
+        }
+    }
+
+    void cancel(@NonNull Target target) {
+        mTargets.remove(target);
+        if (mTargets.isEmpty() && mAnimator != null) {
+            mAnimator.cancel();
+        }
+    }
+
+    /*** 正在切换状态的按钮数量 */
+    int size() {
+        return mTargets.size();
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        final long now = now();
+        for (int i = mTargets.size() - 1; i >= 0; --i) {
+            if (!mTargets.get(i).onTransitionFrame(now)) {
+                mTargets.remove(i);
+            }
+        }
+
+        if (mTargets.isEmpty()) {
+            animation.cancel();
+        }
+    }
+}
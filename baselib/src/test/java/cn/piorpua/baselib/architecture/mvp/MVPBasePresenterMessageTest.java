@@ -0,0 +1,232 @@
+package cn.piorpua.baselib.architecture.mvp;
+
+import android.os.Message;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.Scheduler;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import cn.piorpua.baselib.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link MVPBasePresenter} 内部主线程(ReferenceHandler)消息分发</p>
+ *
+ * 主线程 Looper 暂停, 由虚拟时钟手动推进, 分发顺序与时间完全确定:
+ * <pre>
+ *     1. 延时消息按 (预定时间, 发送顺序) 分发, 分发时的 uptime 与预定时间严格相等, 不提前;
+ *     2. 移除的消息与 Presenter 销毁后的消息不分发;
+ *     3. 输出吞吐(条/秒)与不同队列深度下 hasMessages / removeMessage 的单次耗时;
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class MVPBasePresenterMessageTest {
+
+    /*** 延时消息数, 与 7 互质以打乱发送顺序 */
+    private static final int DELAYED_MESSAGES = 20;
+    /*** 延时间隔 */
+    private static final long STEP_MILLIS = 16L;
+
+    /*** 吞吐阶段的消息数 */
+    private static final int THROUGHPUT_MESSAGES = 100000;
+
+    /*** 队列深度 */
+    private static final int[] QUEUE_DEPTHS = { 1000, 10000, 50000 };
+    /*** 每个深度的查询次数 */
+    private static final int QUERIES_PER_DEPTH = 100;
+    /*** 填充队列的延时, 测量期间不会到期 */
+    private static final long FILL_DELAY_MILLIS = 3600 * 1000L;
+
+    private static final int MSG_FILL = Integer.MAX_VALUE - 1;
+    /*** 队列中不存在的消息, 查询时需遍历整个队列 */
+    private static final int MSG_ABSENT = Integer.MAX_VALUE;
+
+    private static final class TestView implements MVPBaseView {
+        // EMPTY
+    }
+
+    /*** 按分发顺序记录消息与分发时间 */
+    private static final class RecordingPresenter extends MVPBasePresenter<TestView> {
+
+        final int[] mWhat = new int[THROUGHPUT_MESSAGES];
+        final long[] mUptime = new long[THROUGHPUT_MESSAGES];
+        int mReceived;
+
+        RecordingPresenter(TestView view) {
+            super(view);
+        }
+
+        @Override
+        protected void onHandleMessage(@NonNull Message msg) {
+            mWhat[mReceived] = msg.what;
+            mUptime[mReceived] = SystemClock.uptimeMillis();
+            ++mReceived;
+        }
+    }
+
+    private Scheduler mScheduler;
+    private TestView mView;
+    private RecordingPresenter mPresenter;
+
+    @Before
+    public void setUp() {
+        mScheduler = Robolectric.getForegroundThreadScheduler();
+        mScheduler.pause();
+
+        mView = new TestView();
+        mPresenter = new RecordingPresenter(mView);
+    }
+
+    @After
+    public void tearDown() {
+        if (!mPresenter.isDestroyed()) {
+            mPresenter.onDestroy();
+        }
+        mScheduler.unPause();
+    }
+
+    @Test
+    public void delayedMessagesDispatchInTimeOrder() {
+        final long base = SystemClock.uptimeMillis();
+
+        // 第 i 条消息延时 slot(i) 个间隔, 发送顺序与预定时间顺序不同
+        int[] whatAtSlot = new int[DELAYED_MESSAGES];
+        for (int i = 0; i < DELAYED_MESSAGES; ++i) {
+            int slot = (i * 7) % DELAYED_MESSAGES;
+            whatAtSlot[slot] = i;
+            mPresenter.sendEmptyMessageDelayed(i, slot * STEP_MILLIS);
+        }
+
+        // Looper 暂停时即使延时为 0 也不分发
+        assertEquals(0, mPresenter.mReceived);
+
+        for (int slot = 0; slot < DELAYED_MESSAGES; ++slot) {
+            long when = base + slot * STEP_MILLIS;
+            if (slot > 0) {
+                mScheduler.advanceTo(when - 1L);
+                assertEquals("dispatched early at slot " + slot, slot, mPresenter.mReceived);
+            }
+
+            mScheduler.advanceTo(when);
+            assertEquals("not dispatched at slot " + slot, slot + 1, mPresenter.mReceived);
+            assertEquals(whatAtSlot[slot], mPresenter.mWhat[slot]);
+            assertEquals(when, mPresenter.mUptime[slot]);
+        }
+    }
+
+    @Test
+    public void sameDelayKeepsSendOrder() {
+        final long base = SystemClock.uptimeMillis();
+        for (int i = 0; i < 5; ++i) {
+            mPresenter.sendEmptyMessageDelayed(i, STEP_MILLIS);
+        }
+
+        mScheduler.advanceBy(STEP_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(5, mPresenter.mReceived);
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(i, mPresenter.mWhat[i]);
+            assertEquals(base + STEP_MILLIS, mPresenter.mUptime[i]);
+        }
+    }
+
+    @Test
+    public void removedMessagesAreNotDispatched() {
+        final long base = SystemClock.uptimeMillis();
+        mPresenter.sendEmptyMessageDelayed(1, STEP_MILLIS);
+        mPresenter.sendEmptyMessageDelayed(2, 2 * STEP_MILLIS);
+
+        assertTrue(mPresenter.hasMessages(1));
+        mPresenter.removeMessage(1);
+        assertFalse(mPresenter.hasMessages(1));
+        assertTrue(mPresenter.hasMessages(2));
+
+        mScheduler.advanceBy(2 * STEP_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(1, mPresenter.mReceived);
+        assertEquals(2, mPresenter.mWhat[0]);
+        assertEquals(base + 2 * STEP_MILLIS, mPresenter.mUptime[0]);
+    }
+
+    @Test
+    public void destroyedPresenterDropsPendingMessages() {
+        mPresenter.sendEmptyMessage(1);
+        mPresenter.sendEmptyMessageDelayed(2, STEP_MILLIS);
+        mPresenter.onDestroy();
+
+        mScheduler.advanceBy(STEP_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(0, mPresenter.mReceived);
+    }
+
+    @Test
+    public void throughput() {
+        final long base = SystemClock.uptimeMillis();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_MESSAGES; ++i) {
+            mPresenter.sendEmptyMessage(i);
+        }
+        mScheduler.advanceToLastPostedRunnable();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(String.format(Locale.US, "throughput: %d msgs in %.1fms, %.0f msgs/s",
+                THROUGHPUT_MESSAGES, elapsed / 1000000.0, THROUGHPUT_MESSAGES * 1000000000.0 / elapsed));
+
+        // 虚拟时钟不前进, 全部在同一时刻按发送顺序分发
+        assertEquals(THROUGHPUT_MESSAGES, mPresenter.mReceived);
+        for (int i = 0; i < THROUGHPUT_MESSAGES; ++i) {
+            assertEquals(i, mPresenter.mWhat[i]);
+            assertEquals(base, mPresenter.mUptime[i]);
+        }
+    }
+
+    @Test
+    public void queueDepth() {
+        for (int depth : QUEUE_DEPTHS) {
+            for (int i = 0; i < depth; ++i) {
+                mPresenter.sendEmptyMessageDelayed(MSG_FILL, FILL_DELAY_MILLIS + i);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES_PER_DEPTH; ++i) {
+                assertFalse(mPresenter.hasMessages(MSG_ABSENT));
+            }
+            long hasNanos = (System.nanoTime() - start) / QUERIES_PER_DEPTH;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES_PER_DEPTH; ++i) {
+                mPresenter.removeMessage(MSG_ABSENT);
+            }
+            long removeNanos = (System.nanoTime() - start) / QUERIES_PER_DEPTH;
+
+            assertTrue(mPresenter.hasMessages(MSG_FILL));
+            start = System.nanoTime();
+            mPresenter.removeMessage(MSG_FILL);
+            long clearNanos = System.nanoTime() - start;
+            assertFalse(mPresenter.hasMessages(MSG_FILL));
+
+            System.out.println(String.format(Locale.US,
+                    "depth %d: hasMessages %dns, removeMessage(absent) %dns, removeMessage(all) %.2fms",
+                    depth, hasNanos, removeNanos, clearNanos / 1000000.0));
+        }
+
+        mScheduler.advanceBy(FILL_DELAY_MILLIS + QUEUE_DEPTHS[QUEUE_DEPTHS.length - 1], TimeUnit.MILLISECONDS);
+        assertEquals(0, mPresenter.mReceived);
+    }
+}
@@ -0,0 +1,344 @@
+package cn.piorpua.baselib.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import cn.piorpua.baselib.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Author: piorpua<br>
+ * Mail: helloworld.hnu@gmail.com<br>
+ * Date Created: 26/10/19
+ *
+ * <p>Brief: {@link RoundRectCheckDrawable} 与 {@link RoundRectCheckButton} 绘制回归</p>
+ *
+ * 按配置(纯文字, 填充/描边, 绘制图标, 图片图标, 状态位图缓存)交替绘制两种状态, 并交替状态测量/绘制按钮:
+ * <pre>
+ *     1. 以记录型 Canvas 统计单帧绘制指令数, 与各配置的期望值比较;
+ *     2. 以线程分配字节数统计稳定状态下单帧的分配, 不允许逐帧分配;
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RoundRectCheckDrawableRenderTest {
+
+    /*** 预热次数 */
+    private static final int WARMUP_ITERATIONS = 200;
+    /*** 统计次数 */
+    private static final int ITERATIONS = 10000;
+
+    /***
+     * 单帧均摊允许的分配字节数<br>
+     * 单个对象至少 16 字节, 均摊低于 1 字节即没有逐帧分配, 只容忍统计期间偶发的一次性分配
+     */
+    private static final double MAX_BYTES_PER_DRAW = 1.0;
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 68;
+
+    /*** 绘制图标大小(px), 显式指定以免依赖字体度量 */
+    private static final int DRAW_ICON_SIZE = 24;
+
+    /*** 单帧操作 */
+    private interface Frame {
+        void run(int frame);
+    }
+
+    /*** 只统计绘制指令, 不实际绘制 */
+    private static final class RecordingCanvas extends Canvas {
+
+        int mOps;
+        int mSaveCount;
+
+        @Override
+        public int save() {
+            return mSaveCount++;
+        }
+
+        @Override
+        public int saveLayer(float left, float top, float right, float bottom,
+                             @Nullable Paint paint, int saveFlags) {
+            return mSaveCount++;
+        }
+
+        @Override
+        public void restoreToCount(int saveCount) {
+            mSaveCount = saveCount;
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+            // DO NOTHING
+        }
+
+        @Override
+        public void drawPath(@NonNull Path path, @NonNull Paint paint) {
+            ++mOps;
+        }
+
+        @Override
+        public void drawText(@NonNull String text, float x, float y, @NonNull Paint paint) {
+            ++mOps;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, float left, float top, @Nullable Paint paint) {
+            ++mOps;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @Nullable Rect src,
+                               @NonNull Rect dst, @Nullable Paint paint) {
+            ++mOps;
+        }
+
+        @Override
+        public void drawRect(@NonNull Rect rect, @NonNull Paint paint) {
+            ++mOps;
+        }
+
+        @Override
+        public void drawRect(@NonNull RectF rect, @NonNull Paint paint) {
+            ++mOps;
+        }
+    }
+
+    /*** 图片图标: 单个矩形, 共享 ConstantState 以便进入状态位图缓存 */
+    private static final class IconDrawable extends Drawable {
+
+        private static final ConstantState STATE = new ConstantState() {
+            @Override
+            public @NonNull Drawable newDrawable() {
+                return new IconDrawable();
+            }
+
+            @Override
+            public int getChangingConfigurations() {
+                return 0;
+            }
+        };
+
+        private final @NonNull Paint mPaint = new Paint();
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            canvas.drawRect(getBounds(), mPaint);
+        }
+
+        @Override
+        public int getIntrinsicWidth() {
+            return 24;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return 24;
+        }
+
+        @Override
+        public @Nullable ConstantState getConstantState() {
+            return STATE;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+            mPaint.setAlpha(alpha);
+        }
+
+        @Override
+        public void setColorFilter(@Nullable ColorFilter colorFilter) {
+            mPaint.setColorFilter(colorFilter);
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+
+    private RoundRectCheckStyle mText;
+
+    @Before
+    public void setUp() {
+        mText = new RoundRectCheckStyle.Builder()
+                .setTextSize(28)
+                .setColor(false, 0xFFFF5F00)
+                .setColor(true, 0xFF999999)
+                .setText(false, "关注")
+                .setText(true, "已关注")
+                .build();
+    }
+
+    @Test
+    public void textStroke() {
+        assertRender("text, stroke", mText, false, 2);
+    }
+
+    @Test
+    public void textFill() {
+        assertRender("text, fill", mText.buildUpon().setRectFill(true).build(), false, 2);
+    }
+
+    @Test
+    public void drawIconText() {
+        assertRender("DrawIcon + text", drawIconStyle(), false, 3);
+    }
+
+    @Test
+    public void iconText() {
+        Drawable icon = new IconDrawable();
+        assertRender("icon + text",
+                mText.buildUpon().setIcon(false, icon).setIcon(true, icon).build(), false, 3);
+    }
+
+    @Test
+    public void drawIconTextStateCache() {
+        // 命中缓存时只绘制位图
+        assertRender("DrawIcon + text, state cache", drawIconStyle(), true, 1);
+    }
+
+    @Test
+    public void buttonMeasure() {
+        final RoundRectCheckButton button = newButton(drawIconStyle());
+        final int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+        double bytesPerMeasure = bytesPerFrame(null, new Frame() {
+            @Override
+            public void run(int frame) {
+                button.setChecked((frame & 1) == 0);
+                // 跳过 View 的测量缓存, 每次都执行 onMeasure
+                button.forceLayout();
+                button.measure(spec, spec);
+            }
+        });
+
+        RoundRectCheckStyle style = button.getStyle();
+        assertEquals("button measure: width", style.getDesiredWidth(), button.getMeasuredWidth());
+        assertEquals("button measure: height", style.getDesiredHeight(), button.getMeasuredHeight());
+        assertNoAllocation("button measure", bytesPerMeasure);
+    }
+
+    @Test
+    public void buttonDraw() {
+        final RoundRectCheckButton button = newButton(drawIconStyle());
+        final int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        button.measure(spec, spec);
+        button.layout(0, 0, button.getMeasuredWidth(), button.getMeasuredHeight());
+
+        final RecordingCanvas canvas = new RecordingCanvas();
+        double bytesPerDraw = bytesPerFrame(canvas, new Frame() {
+            @Override
+            public void run(int frame) {
+                button.setChecked((frame & 1) == 0);
+                button.draw(canvas);
+            }
+        });
+
+        assertOps("button draw", canvas, 3);
+        assertNoAllocation("button draw", bytesPerDraw);
+    }
+
+    private @NonNull RoundRectCheckStyle drawIconStyle() {
+        return mText.buildUpon()
+                .setDrawIconSize(DRAW_ICON_SIZE)
+                .setDrawIcon(false, RoundRectCheckButton.DrawIcon.ADD)
+                .setDrawIcon(true, RoundRectCheckButton.DrawIcon.CHECK)
+                .build();
+    }
+
+    private static @NonNull RoundRectCheckButton newButton(@NonNull RoundRectCheckStyle style) {
+        RoundRectCheckButton button = new RoundRectCheckButton(RuntimeEnvironment.application);
+        button.setStyle(style);
+        return button;
+    }
+
+    /***
+     * 交替绘制两种状态, 检查单帧绘制指令数与分配
+     * @param expectedOps 单帧期望的绘制指令数
+     */
+    private static void assertRender(@NonNull String name, @NonNull RoundRectCheckStyle style,
+                                     boolean stateCache, int expectedOps) {
+
+        final RoundRectCheckDrawable drawable = new RoundRectCheckDrawable(style);
+        drawable.setStateCacheEnabled(stateCache);
+        drawable.setBounds(0, 0, WIDTH, HEIGHT);
+
+        final RecordingCanvas canvas = new RecordingCanvas();
+        double bytesPerDraw = bytesPerFrame(canvas, new Frame() {
+            @Override
+            public void run(int frame) {
+                drawable.setChecked((frame & 1) == 0, false);
+                drawable.draw(canvas);
+            }
+        });
+
+        assertOps(name, canvas, expectedOps);
+        assertNoAllocation(name, bytesPerDraw);
+    }
+
+    /***
+     * 预热后重复执行 frame, 统计单帧均摊的分配字节数
+     * @param canvas 非空时预热后清零其绘制指令数, 只统计正式执行的部分
+     */
+    private static double bytesPerFrame(@Nullable RecordingCanvas canvas, @NonNull Frame frame) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            frame.run(i);
+        }
+
+        if (canvas != null) {
+            canvas.mOps = 0;
+        }
+        long startBytes = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            frame.run(i);
+        }
+        return (double) (allocatedBytes() - startBytes) / ITERATIONS;
+    }
+
+    private static void assertOps(@NonNull String name, @NonNull RecordingCanvas canvas, int expectedOps) {
+        assertEquals(name + ": unbalanced save/restore", 0, canvas.mSaveCount);
+        assertEquals(String.format(Locale.US, "%s: %.1f ops per draw, expected %d",
+                name, (double) canvas.mOps / ITERATIONS, expectedOps),
+                (long) expectedOps * ITERATIONS, canvas.mOps);
+    }
+
+    private static void assertNoAllocation(@NonNull String name, double bytesPerFrame) {
+        assertTrue(String.format(Locale.US, "%s: %.2f bytes allocated per frame", name, bytesPerFrame),
+                bytesPerFrame < MAX_BYTES_PER_DRAW);
+    }
+
+    /*** 当前线程累计分配的字节数, 不支持时跳过测试 */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() &&
+                threads.isThreadAllocatedMemoryEnabled());
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}